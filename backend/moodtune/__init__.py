@@ -1,5 +1,6 @@
 from flask import Flask #, send_from_directory
 from .routes.playlist import bp as playlist_bp
+from .compression import gzip_json_response
 import logging
 import os
 # from flask_cors import CORS
@@ -7,6 +8,7 @@ import os
 def create_app():
     app = Flask(__name__)
     app.register_blueprint(playlist_bp)
+    app.after_request(gzip_json_response)  # Accept-Encoding: gzip -> compressed JSON
     
     # Add a simple home route
     @app.route('/')
@@ -15,6 +17,7 @@ def create_app():
             "message": "Moodtune API is running!",
             "endpoints": {
                 "POST /playlist": "Get mood-based playlist from Audius",
+                "POST /playlists": "Get playlists for several moods at once",
                 "GET /audius/stream/<track_id>": "Stream a track"
             }
         }
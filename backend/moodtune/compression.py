@@ -0,0 +1,29 @@
+import gzip
+
+from flask import request
+
+# Bodies smaller than this aren't worth the CPU (gzip header alone is ~20 bytes)
+MIN_COMPRESS_SIZE = 500
+
+
+def gzip_json_response(response):
+    """gzip JSON responses for clients that send Accept-Encoding: gzip.
+
+    Track lists repeat the same artwork/permalink/stream_url host prefixes, so they
+    shrink a lot. Redirects, streamed and already-encoded responses pass through untouched.
+    """
+    accept = request.headers.get("Accept-Encoding", "").lower()
+    if ("gzip" not in accept
+            or response.mimetype != "application/json"
+            or response.direct_passthrough
+            or "Content-Encoding" in response.headers):
+        return response
+
+    data = response.get_data()
+    if len(data) < MIN_COMPRESS_SIZE:
+        return response
+
+    response.set_data(gzip.compress(data, compresslevel=6))  # also updates Content-Length
+    response.headers["Content-Encoding"] = "gzip"
+    response.vary.add("Accept-Encoding")
+    return response
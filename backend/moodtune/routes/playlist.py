@@ -1,3 +1,6 @@
+import threading
+import time
+from concurrent.futures import ThreadPoolExecutor
 from flask import Blueprint, request, jsonify, redirect
 from ..moods import AUDIUS_MOODS
 from ..services import audius
@@ -5,6 +8,42 @@ from ..services.audius import AudiusError
 
 bp = Blueprint("playlist", __name__) #define flask endpoint that expose 2 endpoints: 
 
+PLAYLIST_MAX_AGE = 60  # seconds clients may reuse a playlist before revalidating
+MAX_BATCH_FEELINGS = 10  # /playlists refuses bigger batches
+BATCH_WORKERS = 4  # Audius lookups run in parallel, so a batch costs about one lookup
+
+# Paging: {"limit": page size, "cursor": next_cursor of the previous page}
+DEFAULT_PAGE_SIZE = 25
+MAX_PAGE_SIZE = 100
+# Audius has no offset we can page the merged search+trending feed with, and trending returns at
+# most 100 tracks, so one lookup of 100 is as deep as a mood goes
+MAX_PLAYLIST_TRACKS = 100
+FETCH_DEPTH = 2 * DEFAULT_PAGE_SIZE  # first lookup: the first page and the next; deeper pages double it
+TIME_WINDOWS = {"week", "month", "year", "allTime"}
+
+# (feeling, time_window, recent_first) -> (fetched_at, depth, merged tracks), so paging
+# through a mood doesn't repeat the Audius lookups for every page
+_merged_cache = {}
+_merged_cache_lock = threading.Lock()  # /playlists looks feelings up from several worker threads
+_MERGED_CACHE_MAX_KEYS = 64
+
+
+def _cacheable_json(payload, max_age):
+    """JSON response with a (weak) ETag and max-age; answers 304 if the client already has it.
+
+    Done by hand because Werkzeug's make_conditional only handles GET/HEAD and /playlist is a POST.
+    """
+    resp = jsonify(payload)
+    resp.add_etag(weak=True)  # weak: the gzip hook may re-encode the body afterwards
+    resp.cache_control.private = True
+    resp.cache_control.max_age = max_age
+
+    etag, _ = resp.get_etag()
+    if request.if_none_match.contains_weak(etag):
+        resp.status_code = 304
+        resp.set_data(b"")
+    return resp
+
 @bp.post("/playlist") #Creates a Flask Blueprint (a way to organize routes)
 def playlist():
 
@@ -12,12 +51,108 @@ def playlist():
     feeling = (body.get("feeling") or "calm").strip().lower()
 
     try:
-        #from audius.py
-        tracks = audius.search_new_and_popular(feeling, limit=30, time_window="week", recent_first=False) #Requests up to 30 tracks from Audius
+        options = _page_options(body)
+    except ValueError as e:
+        return jsonify({"error": "bad_request", "message": str(e)}), 400
+
+    try:
+        payload = _playlist_payload(feeling, **options)
     except AudiusError as e:
         return jsonify({"error": "audius_unavailable", "message": str(e)}), 502
 
-    return jsonify({"feeling": feeling, "count": min(25, len(tracks)), "tracks": tracks[:25]})#Even if up to 30 are fetched, the response caps at 25 tracks
+    return _cacheable_json(payload, PLAYLIST_MAX_AGE)
+
+
+def _page_options(body):
+    """limit/cursor/time_window/recent_first from a request body. Raises ValueError for a bad cursor."""
+    try:
+        limit = int(body.get("limit") or DEFAULT_PAGE_SIZE)
+    except (TypeError, ValueError):
+        limit = DEFAULT_PAGE_SIZE
+    cursor = body.get("cursor")
+    if cursor in (None, ""):
+        offset = 0
+    elif isinstance(cursor, str) and cursor.isdigit():
+        offset = int(cursor)  # opaque to clients; currently just the offset
+    else:
+        raise ValueError("invalid cursor")
+    time_window = body.get("time_window")
+    return {
+        "limit": max(1, min(MAX_PAGE_SIZE, limit)),
+        "offset": offset,
+        "time_window": time_window if time_window in TIME_WINDOWS else "week",
+        "recent_first": bool(body.get("recent_first", False)),
+    }
+
+
+def _merged_tracks(feeling, needed, time_window, recent_first):
+    """At least `needed` tracks for a feeling (fewer if Audius has no more), reusing a recent lookup."""
+    key = (feeling, time_window, recent_first)
+    with _merged_cache_lock:
+        hit = _merged_cache.get(key)
+    now = time.time()
+    fresh = hit and now - hit[0] < PLAYLIST_MAX_AGE
+    # a cached list is deep enough if it was fetched that deep, or if Audius ran out before it
+    if fresh and (hit[1] >= needed or len(hit[2]) < hit[1]):
+        return hit[2]
+
+    # deepen geometrically so paging to the end costs O(log n) lookups, not one per page
+    depth = min(MAX_PLAYLIST_TRACKS, max(FETCH_DEPTH, needed, 2 * hit[1] if fresh else 0))
+
+    #from audius.py
+    tracks = audius.search_new_and_popular(feeling, limit=depth, time_window=time_window, recent_first=recent_first)
+    with _merged_cache_lock:
+        if len(_merged_cache) >= _MERGED_CACHE_MAX_KEYS:
+            _merged_cache.clear()
+        _merged_cache[key] = (now, depth, tracks)
+    return tracks
+
+
+def _playlist_payload(feeling, limit=DEFAULT_PAGE_SIZE, offset=0, time_window="week", recent_first=False):
+    """One page of the /playlist response body for a feeling. Raises AudiusError."""
+    end = min(offset + limit, MAX_PLAYLIST_TRACKS)
+    # one extra track tells us whether there is a next page
+    tracks = _merged_tracks(feeling, min(end + 1, MAX_PLAYLIST_TRACKS), time_window, recent_first)
+    page = tracks[offset:end]
+    has_more = len(tracks) > end and end < MAX_PLAYLIST_TRACKS
+    return {
+        "feeling": feeling,
+        "count": len(page),
+        "tracks": page,
+        "next_cursor": str(end) if has_more else None,
+    }
+
+
+@bp.post("/playlists") #Several feelings in one round trip, e.g. every mood card on the selection screen
+def playlists():
+    body = request.get_json(force=True, silent=True) or {}
+    feelings = body.get("feelings")
+    if not isinstance(feelings, list) or not feelings:
+        return jsonify({"error": "bad_request", "message": "'feelings' must be a non-empty list"}), 400
+    if len(feelings) > MAX_BATCH_FEELINGS:
+        return jsonify({"error": "bad_request", "message": f"at most {MAX_BATCH_FEELINGS} feelings per batch"}), 400
+
+    # dedupe, keep order
+    feelings = list(dict.fromkeys((str(f).strip().lower() or "calm") for f in feelings))
+    try:
+        options = _page_options(body)  # same paging options for every feeling (first pages, normally)
+    except ValueError as e:
+        return jsonify({"error": "bad_request", "message": str(e)}), 400
+
+    def fetch(feeling):
+        try:
+            return feeling, _playlist_payload(feeling, **options), None
+        except AudiusError as e:
+            return feeling, None, str(e)
+
+    with ThreadPoolExecutor(max_workers=min(BATCH_WORKERS, len(feelings))) as pool:
+        results = list(pool.map(fetch, feelings))
+
+    payload = {"playlists": {f: p for f, p, _ in results if p is not None},
+               "errors": {f: err for f, _, err in results if err is not None}}
+    if not payload["playlists"]:
+        return jsonify({"error": "audius_unavailable", "message": "; ".join(payload["errors"].values())}), 502
+    return _cacheable_json(payload, PLAYLIST_MAX_AGE)
 
 @bp.get("/audius/stream/<track_id>") #302-redirect the client to Audius’ stream URL for a given track
 def audius_stream(track_id):
@@ -52,6 +52,8 @@ def _normalize(track, host):
         "id": track["id"],
         "title": track.get("title"),
         "artist": (track.get("user") or {}).get("name"),
+        "album": (track.get("album_backlink") or {}).get("playlist_name"),  # None if not on an album
+        "duration": track.get("duration"),  # seconds
         "artwork": (track.get("artwork") or {}).get("480x480"),
         "permalink": track.get("permalink"),
         "source": "audius",
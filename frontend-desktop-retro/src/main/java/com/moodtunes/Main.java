@@ -5,6 +5,10 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import com.moodtunes.controllers.PlaylistController;
+import com.moodtunes.network.ApiClient;
+import com.moodtunes.network.NetworkContext;
+import com.moodtunes.network.NetworkStats;
 import com.moodtunes.utils.SceneManager;
 
 /**
@@ -20,6 +24,14 @@ public class Main extends Application {
     @Override
     public void start(Stage stage) {
         primaryStage = stage;
+        NetworkStats.markAppStart();
+        NetworkContext.start(); // one HttpClient/connection pool for every screen
+
+        // Open the backend connection while the welcome screen is showing,
+        // so the first playlist request doesn't pay for DNS/TCP/TLS setup
+        if (NetworkStats.isWarmUpEnabled()) {
+            new ApiClient(ApiClient.configuredBaseUrls(PlaylistController.BACKEND_BASE)).warmUp();
+        }
         
         // Set application title
         primaryStage.setTitle("MoodTunes.exe");
@@ -44,6 +56,12 @@ public class Main extends Application {
         }
     }
     
+    /** Runs once the last window is closed (e.g. by a screen's close button). */
+    @Override
+    public void stop() {
+        NetworkContext.shutdown();
+    }
+
     public static Stage getPrimaryStage() {
         return primaryStage;
     }
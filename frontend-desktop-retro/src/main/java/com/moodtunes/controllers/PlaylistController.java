@@ -1,5 +1,6 @@
 package com.moodtunes.controllers;
 
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.event.ActionEvent;
@@ -11,10 +12,15 @@ import javafx.geometry.Pos;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
+import javafx.scene.control.IndexedCell;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
 import javafx.scene.control.Slider;
 import javafx.scene.control.TextField;
+import javafx.scene.control.skin.VirtualFlow;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
@@ -30,22 +36,29 @@ import javafx.util.Duration;
 import javafx.beans.value.ChangeListener;
 
 // Import Gson for JSON parsing
-import com.google.gson.*;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 
 import com.moodtunes.models.Mood;
+import com.moodtunes.models.PlaylistStore;
 import com.moodtunes.models.Song;
+import com.moodtunes.network.ApiClient;
+import com.moodtunes.network.CircuitOpenException;
+import com.moodtunes.network.HttpStatusException;
+import com.moodtunes.network.NetworkStats;
+import com.moodtunes.network.PlaylistPage;
+import com.moodtunes.network.PlaylistService;
+import com.moodtunes.network.RequestGeneration;
+import com.moodtunes.network.StreamUrlResolver;
+import com.moodtunes.utils.AppExecutors;
 import com.moodtunes.utils.SceneManager;
 
 import java.io.IOException;
-import java.net.URI;
 import java.net.URL;
-import java.net.URLEncoder;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
+import java.net.http.HttpTimeoutException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller for the playlist screen with BACKEND integration
@@ -54,23 +67,30 @@ import java.util.stream.Collectors;
  * Properly stores and removes listener to prevent conflicts
  */
 public class PlaylistController implements Initializable {
-    // Configuration for backend API
-    private static final String BACKEND_BASE = "https://reimagined-xylophone-5j9jj5wp96gc46rv-5000.app.github.dev/";
-    private static final int REQUEST_TIMEOUT_SECONDS = 30;
+    // Configuration for backend API: used unless api.base.urls / api.base.url (or the
+    // MOODTUNES_API_URLS / MOODTUNES_API_URL env vars) name one or more instances
+    public static final String BACKEND_BASE = "https://reimagined-xylophone-5j9jj5wp96gc46rv-5000.app.github.dev/";
+    // Tracks per /playlist page; the rest of a long playlist streams in behind the first page
+    private static final int PAGE_SIZE = 30;
     private ChangeListener<Duration> timeUpdateListener;
 
-    // JSON parser and HTTP client for backend communication
-    private final Gson gson = new Gson();
-    private final HttpClient httpClient = HttpClient.newBuilder()
-            .connectTimeout(java.time.Duration.ofSeconds(REQUEST_TIMEOUT_SECONDS))
-            .build();
+    // Backend client: HTTP + JSON decoding of /playlist responses
+    private final ApiClient api = new ApiClient(ApiClient.configuredBaseUrls(BACKEND_BASE));
+    private final PlaylistService playlistService = new PlaylistService(api);
+    private final StreamUrlResolver streamUrls = new StreamUrlResolver(api);
+    // Only the latest playlist load counts; older ones are aborted and their results dropped
+    private final RequestGeneration playlistLoads = new RequestGeneration();
+    // Searching waits for a pause in typing, then runs off the FX thread; only the latest query is shown
+    private static final Duration SEARCH_DEBOUNCE = Duration.millis(150);
+    private final PauseTransition searchDebounce = new PauseTransition(SEARCH_DEBOUNCE);
+    private final RequestGeneration searches = new RequestGeneration();
 
     // === FXML Components ===
     @FXML
     private Label playlistTitle;
 
     @FXML
-    private VBox songList;
+    private ListView<Song> songList;
 
     @FXML
     private HBox miniPlayer;
@@ -143,11 +163,17 @@ public class PlaylistController implements Initializable {
     @FXML
     private VBox rootPane;
 
+    @FXML
+    private CheckBox fuzzySearchCheck;
+
     // === State ===
     private MediaPlayer mediaPlayer;
     private Mood currentMood;
-    private List<Song> playlist = new ArrayList<>();
-    private List<Song> filteredPlaylist = new ArrayList<>();
+    private PlaylistStore store = new PlaylistStore();
+    private PlaylistStore.View baseView = store.all();          // every loaded track, backend order
+    private PlaylistStore.View filteredPlaylist = baseView;     // on screen: baseView sorted, then searched
+    // Sort columns, most recently chosen first; earlier choices break its ties. Empty = backend order
+    private final List<PlaylistStore.SortSpec> sortOrder = new ArrayList<>();
     private Song currentSong;
     private boolean isPlaying = false;
     private int currentSongIndex = -1;
@@ -188,10 +214,16 @@ public class PlaylistController implements Initializable {
             totalTimeLabel.setText("0:00");
         }
 
-        // Setup search field listener for real-time filtering
+        // Rows are only built for the songs on screen, so a new list costs the same however long it is
+        if (songList != null) {
+            songList.setCellFactory(list -> new SongCell());
+        }
+
+        // Setup search field listener: filter once typing pauses
         if (searchField != null) {
             searchField.textProperty().addListener((obs, oldVal, newVal) -> {
-                filterPlaylist(newVal.trim());
+                searchDebounce.setOnFinished(event -> filterPlaylist(newVal.trim()));
+                searchDebounce.playFromStart();
             });
         }
 
@@ -281,7 +313,7 @@ public class PlaylistController implements Initializable {
             return;
         }
 
-        int songDurationSeconds = durationToSeconds(currentSong.getDuration());
+        int songDurationSeconds = currentSong.getDurationSeconds();
 
         if (songDurationSeconds <= 0) {
             System.err.println("Invalid song duration");
@@ -385,7 +417,6 @@ public class PlaylistController implements Initializable {
     // === UI Helper Methods ===
 
     private void showLoadingState() {
-        songList.getChildren().clear();
         VBox loadingBox = new VBox(20);
         loadingBox.setAlignment(Pos.CENTER);
         loadingBox.setPadding(new Insets(50));
@@ -399,12 +430,10 @@ public class PlaylistController implements Initializable {
         waitLabel.setStyle("-fx-text-fill: #666666;");
 
         loadingBox.getChildren().addAll(loadingLabel, waitLabel);
-        songList.getChildren().add(loadingBox);
+        showPlaceholder(loadingBox);
     }
 
     private void showErrorState(String error) {
-        songList.getChildren().clear();
-
         VBox errorBox = new VBox(20);
         errorBox.setAlignment(Pos.CENTER);
         errorBox.setPadding(new Insets(50));
@@ -436,155 +465,226 @@ public class PlaylistController implements Initializable {
         });
 
         errorBox.getChildren().addAll(errorLabel, detailLabel, retryButton);
-        songList.getChildren().add(errorBox);
+        showPlaceholder(errorBox);
+    }
+
+    /** Empties the list and shows {@code message} in its place. */
+    private void showPlaceholder(VBox message) {
+        songList.setPlaceholder(message);
+        songList.setItems(FXCollections.emptyObservableList());
     }
 
     // === Backend Integration ===
 
+    /**
+     * Everything in the /playlist body except "feeling" (and "cursor", added per page);
+     * MoodSelectionController prefetches with the same.
+     */
+    static JsonObject playlistRequestOptions() {
+        JsonObject options = new JsonObject();
+        options.addProperty("limit", PAGE_SIZE);
+        options.addProperty("time_window", "week");
+        options.addProperty("recent_first", false);
+        return options;
+    }
+
     private void loadPlaylistFromBackend(String moodName) {
-        new Thread(() -> {
-            try {
-                String feeling = moodName.trim().toLowerCase();
-                System.out.println("Fetching playlist for mood: " + feeling);
-
-                JsonObject requestBody = new JsonObject();
-                requestBody.addProperty("feeling", feeling);
-                requestBody.addProperty("limit", 30);
-                requestBody.addProperty("time_window", "week");
-                requestBody.addProperty("recent_first", false);
-
-                String jsonBody = gson.toJson(requestBody);
-                System.out.println("Request: " + jsonBody);
-
-                HttpRequest request = HttpRequest.newBuilder()
-                        .uri(URI.create(BACKEND_BASE + "/playlist"))
-                        .header("Content-Type", "application/json")
-                        .timeout(java.time.Duration.ofSeconds(REQUEST_TIMEOUT_SECONDS))
-                        .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
-                        .build();
-
-                HttpResponse<String> response = httpClient.send(request,
-                        HttpResponse.BodyHandlers.ofString());
-
-                System.out.println("Response status: " + response.statusCode());
-
-                if (response.statusCode() == 200) {
-                    parseAndDisplayPlaylist(response.body());
-                } else {
-                    String error = "Backend error: " + response.statusCode();
-                    System.err.println("❌ " + error);
+        String feeling = moodName.trim().toLowerCase();
+        System.out.println("Fetching playlist for mood: " + feeling);
+
+        JsonObject requestBody = playlistRequestOptions();
+        requestBody.addProperty("feeling", feeling);
+
+        long requestedAt = System.nanoTime();
+        long token = playlistLoads.next(); // aborts the load for the previous mood, if any
+
+        // Async exchange, coalesced with any identical request already in flight; the
+        // response is parsed off the FX thread and only the finished page is handed over.
+        // The first page is shown right away, the rest are appended as they arrive.
+        playlistLoads.track(token, playlistService.fetchPage(requestBody))
+                .thenAcceptAsync(page -> {
+                    if (!playlistLoads.isCurrent(token)) return;
+                    displayPlaylist(page.songs(), requestedAt);
+                    if (!page.songs().isEmpty()) loadRemainingPages(requestBody, page, token);
+                }, ApiClient.FX_THREAD)
+                .exceptionally(ex -> {
+                    Throwable cause = ApiClient.rootCause(ex);
+                    if (cause instanceof CancellationException || !playlistLoads.isCurrent(token)) {
+                        System.out.println("Dropped stale playlist load for: " + feeling);
+                        return null;
+                    }
+                    String error;
+                    if (cause instanceof CircuitOpenException) {
+                        error = cause.getMessage();
+                    } else if (cause instanceof HttpStatusException) {
+                        error = "Backend error: " + ((HttpStatusException) cause).getStatusCode();
+                    } else if (cause instanceof HttpTimeoutException) {
+                        error = "Backend is taking too long to answer";
+                        System.err.println("Timeouts: " + api.describeTimeouts());
+                    } else if (cause instanceof JsonParseException || cause instanceof IllegalStateException) {
+                        error = "Failed to parse playlist data";
+                    } else {
+                        error = "Cannot connect to backend. Make sure it's running on " + api.getBaseUrl();
+                    }
+                    System.err.println("❌ " + error + " (" + cause + ")");
+                    cause.printStackTrace();
                     Platform.runLater(() -> showErrorState(error));
-                }
-
-            } catch (InterruptedException e) {
-                System.err.println("Request interrupted");
-                Thread.currentThread().interrupt();
-                Platform.runLater(() -> showErrorState("Request was interrupted"));
-            } catch (Exception e) {
-                System.err.println(" Error: " + e.getMessage());
-                e.printStackTrace();
-                Platform.runLater(() -> showErrorState("Cannot connect to backend. Make sure it's running on " + BACKEND_BASE));
-            }
-        }, "playlist-fetcher").start();
+                    return null;
+                });
     }
 
-    private void parseAndDisplayPlaylist(String jsonResponse) {
-        try {
-            JsonObject root = JsonParser.parseString(jsonResponse).getAsJsonObject();
-            JsonArray tracksArray = root.getAsJsonArray("tracks");
-
-            if (tracksArray == null || tracksArray.size() == 0) {
-                Platform.runLater(() -> showErrorState("No tracks found for this mood"));
-                return;
-            }
-
-            List<Song> fetchedSongs = new ArrayList<>();
+    /**
+     * Fetches the pages after {@code page} one at a time and appends each to the list.
+     * Stops at the last page, or as soon as another mood is loaded (the token goes stale
+     * and the page in flight is aborted).
+     */
+    private void loadRemainingPages(JsonObject requestBody, PlaylistPage page, long token) {
+        if (!page.hasMore()) return;
+        playlistLoads.track(token, playlistService.nextPage(requestBody, page))
+                .thenAcceptAsync(next -> {
+                    if (!playlistLoads.isCurrent(token)) return;
+                    appendSongs(next.songs());
+                    loadRemainingPages(requestBody, next, token);
+                }, ApiClient.FX_THREAD)
+                .exceptionally(ex -> {
+                    Throwable cause = ApiClient.rootCause(ex);
+                    if (!(cause instanceof CancellationException) && playlistLoads.isCurrent(token)) {
+                        // Keep what we have; the tracks already shown stay playable
+                        System.err.println("❌ Stopped loading more tracks after " + store.size() + " (" + cause + ")");
+                    }
+                    return null;
+                });
+    }
 
-            for (JsonElement element : tracksArray) {
-                JsonObject track = element.getAsJsonObject();
-                String id = getJsonString(track, "id", UUID.randomUUID().toString());
-                String title = getJsonString(track, "title", "Unknown Track");
-                String artist = extractArtistName(track);
-                String duration = formatDuration(track);
+    private void displayPlaylist(List<Song> fetchedSongs, long requestedAt) {
+        if (fetchedSongs.isEmpty()) {
+            showErrorState("No tracks found for this mood");
+            return;
+        }
 
-                fetchedSongs.add(new Song(id, title, artist, duration));
-            }
+        store = PlaylistStore.of(fetchedSongs); // later pages are appended
+        baseView = store.all();
+        filteredPlaylist = viewFor(currentQuery());
+        populateSongList();
+        updateSongCount();
+        System.out.println(" Loaded " + store.size() + " tracks");
+        streamUrls.prefetchAround(filteredPlaylist, 0);
+        NetworkStats.recordFirstPlaylist(requestedAt);
+    }
 
-            Platform.runLater(() -> {
-                playlist = fetchedSongs;
-                filteredPlaylist = new ArrayList<>(playlist);
+    /**
+     * Adds a later page to the list without rebuilding it: matching songs go to the end,
+     * or to their place in the current sort, and the rows on screen stay where they are.
+     */
+    private void appendSongs(List<Song> more) {
+        int first = store.addAll(more);
+        baseView = store.all(); // views remembered on the old base don't have the new rows
+        String query = currentQuery();
+        System.out.println(" Loaded " + store.size() + " tracks so far");
+
+        if (isFuzzySearch() && !query.isEmpty()) {
+            // Fuzzy results are ranked, so new tracks can land anywhere: search again
+            filterPlaylist(query);
+        } else if (filteredPlaylist.isEmpty()) {
+            // The list is showing the "no match" placeholder, nothing to keep in place
+            filteredPlaylist = viewFor(query);
+            if (!filteredPlaylist.isEmpty()) populateSongList();
+        } else {
+            keepingTopSong(() -> {
+                filteredPlaylist = filteredPlaylist.withAdded(first, query, sortOrder, at -> { });
                 populateSongList();
-                updateSongCount();
-                System.out.println(" Loaded " + playlist.size() + " tracks");
             });
-
-        } catch (Exception e) {
-            System.err.println("Parse error: " + e.getMessage());
-            e.printStackTrace();
-            Platform.runLater(() -> showErrorState("Failed to parse playlist data"));
         }
+        if (currentSong != null) currentSongIndex = filteredPlaylist.indexOf(currentSong);
+        updateSongCount();
     }
 
-    // === JSON Helper Methods ===
-
-    private String extractArtistName(JsonObject track) {
-        if (track.has("artist") && !track.get("artist").isJsonNull()) {
-            return track.get("artist").getAsString();
-        }
+    /**
+     * Tracks matching {@code query}, in the active sort (ranked best first with fuzzy search on).
+     * Sorted and searched views are remembered by the view they came from, so returning to an
+     * earlier sort or search (clearing the box, say) hands back the same view without recomputing it.
+     */
+    private PlaylistStore.View viewFor(String query) {
+        return search(baseView.sorted(sortOrder), query, isFuzzySearch());
+    }
 
-        if (track.has("user") && track.get("user").isJsonObject()) {
-            JsonObject user = track.getAsJsonObject("user");
-            if (user.has("name") && !user.get("name").isJsonNull()) {
-                return user.get("name").getAsString();
-            }
-            if (user.has("handle") && !user.get("handle").isJsonNull()) {
-                return user.get("handle").getAsString();
-            }
+    /** Exact matches in {@code view}'s order, or with fuzzy search on, typo-tolerant matches best first. */
+    private static PlaylistStore.View search(PlaylistStore.View view, String query, boolean fuzzy) {
+        if (!fuzzy) return view.filter(query);
+        PlaylistStore.View result = view.fuzzyFilter(query);
+        if (result.isCutShort()) {
+            System.out.println("⏱ Fuzzy search for \"" + query + "\" ran out of time; results may be incomplete");
         }
+        return result;
+    }
 
-        return "Unknown Artist";
+    private boolean isFuzzySearch() {
+        return fuzzySearchCheck != null && fuzzySearchCheck.isSelected();
     }
 
-    private String formatDuration(JsonObject track) {
-        if (track.has("duration") && !track.get("duration").isJsonNull()) {
-            try {
-                int seconds = track.get("duration").getAsInt();
-                int minutes = seconds / 60;
-                int secs = seconds % 60;
-                return String.format("%d:%02d", minutes, secs);
-            } catch (Exception ignored) {}
-        }
+    private String currentQuery() {
+        return searchField != null ? searchField.getText().trim() : "";
+    }
 
-        if (track.has("durationText") && !track.get("durationText").isJsonNull()) {
-            return track.get("durationText").getAsString();
-        }
+    /**
+     * Runs a change to the song list and then scrolls so the song that was at the top is at
+     * the top again. Rows inserted above it would otherwise push the view down.
+     */
+    private void keepingTopSong(Runnable change) {
+        VirtualFlow<?> flow = (VirtualFlow<?>) songList.lookup(".virtual-flow");
+        IndexedCell<?> top = flow != null ? flow.getFirstVisibleCell() : null;
+        Object topSong = top != null ? top.getItem() : null;
 
-        return "3:00";
-    }
+        change.run();
 
-    private String getJsonString(JsonObject obj, String key, String defaultValue) {
-        if (obj.has(key) && !obj.get(key).isJsonNull()) {
-            return obj.get(key).getAsString();
-        }
-        return defaultValue;
+        int at = topSong != null ? filteredPlaylist.indexOf(topSong) : -1;
+        if (at > 0) songList.scrollTo(at);
     }
 
     // === Search and Filter Methods ===
 
+    /**
+     * Runs {@code query} against the current sort on a worker and swaps the resulting view
+     * into the list; only the rows on screen are built. A newer query, or leaving
+     * the screen, cancels it; a result that still arrives is dropped. If a page or a sort
+     * change landed while it ran, the search runs again against that.
+     */
     @FXML
     private void filterPlaylist(String query) {
-        if (query == null || query.isEmpty()) {
-            filteredPlaylist = new ArrayList<>(playlist);
-        } else {
-            String lowerQuery = query.toLowerCase();
-            filteredPlaylist = playlist.stream()
-                    .filter(song -> song.getTitle().toLowerCase().contains(lowerQuery) ||
-                            song.getArtist().toLowerCase().contains(lowerQuery))
-                    .collect(Collectors.toList());
-        }
+        long token = searches.next();
+        PlaylistStore.View base = baseView;
+        List<PlaylistStore.SortSpec> order = List.copyOf(sortOrder);
+        boolean fuzzy = isFuzzySearch();
+
+        searches.track(token, CompletableFuture.supplyAsync(() -> {
+                    if (!searches.isCurrent(token)) throw new CancellationException();
+                    return search(base.sorted(order), query, fuzzy);
+                }, AppExecutors.io()))
+                .thenAcceptAsync(view -> {
+                    if (!searches.isCurrent(token)) return;
+                    if (base != baseView || !order.equals(sortOrder) || fuzzy != isFuzzySearch()) {
+                        filterPlaylist(query);
+                        return;
+                    }
+                    filteredPlaylist = view;
+                    if (currentSong != null) currentSongIndex = filteredPlaylist.indexOf(currentSong);
+                    populateSongList();
+                    updateSongCount();
+                }, ApiClient.FX_THREAD)
+                .exceptionally(ex -> {
+                    Throwable cause = ApiClient.rootCause(ex);
+                    if (!(cause instanceof CancellationException)) {
+                        System.err.println("❌ Search failed for \"" + query + "\" (" + cause + ")");
+                        cause.printStackTrace();
+                    }
+                    return null;
+                });
+    }
 
-        populateSongList();
-        updateSongCount();
+    @FXML
+    private void handleFuzzyToggle() {
+        searchDebounce.stop();
+        filterPlaylist(currentQuery());
     }
 
     @FXML
@@ -592,7 +692,10 @@ public class PlaylistController implements Initializable {
         if (searchField != null) {
             searchField.clear();
         }
-        filteredPlaylist = new ArrayList<>(playlist);
+        // Show the full list right away rather than after the debounce
+        searchDebounce.stop();
+        searches.invalidate();
+        filteredPlaylist = viewFor("");
         populateSongList();
         updateSongCount();
     }
@@ -670,59 +773,44 @@ public class PlaylistController implements Initializable {
     // === Sort Methods ===
 
     private void sortByTitle(boolean ascending) {
-        filteredPlaylist.sort((a, b) -> {
-            int comparison = a.getTitle().compareToIgnoreCase(b.getTitle());
-            return ascending ? comparison : -comparison;
-        });
-        populateSongList();
+        applySort(PlaylistStore.SortKey.TITLE, ascending);
         System.out.println(" Sorted by Title: " + (ascending ? "A-Z" : "Z-A"));
     }
 
     private void sortByArtist(boolean ascending) {
-        filteredPlaylist.sort((a, b) -> {
-            int comparison = a.getArtist().compareToIgnoreCase(b.getArtist());
-            return ascending ? comparison : -comparison;
-        });
-        populateSongList();
+        applySort(PlaylistStore.SortKey.ARTIST, ascending);
         System.out.println(" Sorted by Artist: " + (ascending ? "A-Z" : "Z-A"));
     }
 
     private void sortByAlbum(boolean ascending) {
-        filteredPlaylist.sort((a, b) -> {
-            int comparison = a.getArtist().compareToIgnoreCase(b.getArtist());
-            return ascending ? comparison : -comparison;
-        });
-        populateSongList();
+        applySort(PlaylistStore.SortKey.ALBUM, ascending);
         System.out.println(" Sorted by Album: " + (ascending ? "A-Z" : "Z-A"));
     }
 
     private void sortByDuration(boolean shortestFirst) {
-        filteredPlaylist.sort((a, b) -> {
-            int durationA = durationToSeconds(a.getDuration());
-            int durationB = durationToSeconds(b.getDuration());
-            int comparison = Integer.compare(durationA, durationB);
-            return shortestFirst ? comparison : -comparison;
-        });
-        populateSongList();
+        applySort(PlaylistStore.SortKey.DURATION, shortestFirst);
         System.out.println(" Sorted by Duration: " + (shortestFirst ? "Shortest-Longest" : "Longest-Shortest"));
     }
 
-    private int durationToSeconds(String duration) {
-        try {
-            String[] parts = duration.split(":");
-            int minutes = Integer.parseInt(parts[0]);
-            int seconds = Integer.parseInt(parts[1]);
-            return minutes * 60 + seconds;
-        } catch (Exception e) {
-            return 0;
-        }
+    /**
+     * Makes {@code key} the primary sort column, keeping the other chosen columns as tie-breakers,
+     * and shows the current search in that order. Flipping the primary column's direction back
+     * and forth reuses the earlier sort instead of sorting again.
+     */
+    private void applySort(PlaylistStore.SortKey key, boolean ascending) {
+        sortOrder.removeIf(spec -> spec.key() == key);
+        sortOrder.add(0, new PlaylistStore.SortSpec(key, ascending));
+        filteredPlaylist = viewFor(currentQuery());
+        populateSongList();
     }
 
     // === UI Population ===
 
+    /**
+     * Shows {@link #filteredPlaylist}, or the empty-state message if it has no songs. The list
+     * reads the view in place, so this costs the rows on screen, not the length of the view.
+     */
     private void populateSongList() {
-        songList.getChildren().clear();
-
         if (filteredPlaylist.isEmpty()) {
             if (searchField != null && !searchField.getText().isEmpty()) {
                 showErrorState("No songs match your search");
@@ -731,20 +819,30 @@ public class PlaylistController implements Initializable {
             }
             return;
         }
+        songList.setItems(FXCollections.observableList(filteredPlaylist));
+    }
 
-        for (Song song : filteredPlaylist) {
-            HBox songItem = createSongItem(song);
-            songList.getChildren().add(songItem);
+    /** One row of the song list; the row for {@link #currentSong} is highlighted. */
+    private class SongCell extends ListCell<Song> {
+        SongCell() {
+            setStyle("-fx-background-color: transparent; -fx-padding: 0 0 15 0;");
+        }
+
+        @Override
+        protected void updateItem(Song song, boolean empty) {
+            super.updateItem(song, empty);
+            setText(null);
+            setGraphic(empty || song == null ? null : createSongItem(song, song == currentSong));
         }
     }
 
-    private HBox createSongItem(Song song) {
+    private HBox createSongItem(Song song, boolean playing) {
         HBox hbox = new HBox(15);
         hbox.setAlignment(Pos.CENTER_LEFT);
         hbox.setPadding(new Insets(15, 20, 15, 20));
 
         // Set initial style based on whether this is the currently playing song
-        if (song == currentSong) {
+        if (playing) {
             hbox.setStyle(
                     "-fx-background-color: linear-gradient(to right, #FFE4E1 0%, #FFD6D1 100%); " +
                             "-fx-background-radius: 10; " +
@@ -861,8 +959,9 @@ public class PlaylistController implements Initializable {
             mediaPlayer = null;
         }
 
-        String streamUrl = BACKEND_BASE + "/audius/stream/" +
-                URLEncoder.encode(song.getId(), StandardCharsets.UTF_8);
+        // Resolved Audius URL when we have one (skips the backend 302 hop), else the backend URL
+        String streamUrl = streamUrls.urlFor(song.getId());
+        streamUrls.prefetchAround(filteredPlaylist, currentSongIndex);
 
         System.out.println("🎵 Playing: " + song.getTitle());
         System.out.println("📡 Stream URL: " + streamUrl);
@@ -891,7 +990,7 @@ public class PlaylistController implements Initializable {
             // Use Song duration from backend instead of MediaPlayer duration
             // The backend doesn't always provide duration metadata in the stream,
             // so we use the duration we already have from the playlist response
-            int songDurationSeconds = durationToSeconds(song.getDuration());
+            int songDurationSeconds = song.getDurationSeconds();
             System.out.println(" Song duration: " + song.getDuration() + " (" + songDurationSeconds + "s)");
             final int finalDurationSeconds = songDurationSeconds;
 
@@ -946,7 +1045,7 @@ public class PlaylistController implements Initializable {
             mediaPlayer.setOnReady(() -> {
                 System.out.println(" Media is READY");
                 isPlaying = true;
-                populateSongList();
+                songList.refresh(); // re-highlight the rows on screen
                 System.out.println("Ready to play");
             });
 
@@ -982,6 +1081,7 @@ public class PlaylistController implements Initializable {
 
             mediaPlayer.setOnError(() -> {
                 System.err.println("Playback error: " + mediaPlayer.getError());
+                streamUrls.invalidate(song.getId()); // e.g. expired signed URL; re-resolve next time
                 if (mediaPlayer.getError() != null) {
                     mediaPlayer.getError().printStackTrace();
                 }
@@ -1070,6 +1170,8 @@ public class PlaylistController implements Initializable {
     @FXML
     private void handleBackButton() {
         try {
+            playlistLoads.invalidate();
+            searches.invalidate();
             disposePlayer();
             SceneManager.switchScene("mood-selection");
         } catch (IOException e) {
@@ -1091,6 +1193,8 @@ public class PlaylistController implements Initializable {
 
     @FXML
     private void handleClose() {
+        playlistLoads.invalidate();
+        searches.invalidate();
         disposePlayer();
         Stage stage = (Stage) closeButton.getScene().getWindow();
         stage.close();
@@ -0,0 +1,142 @@
+package com.moodtunes.models;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Trigram postings over a growing list of folded strings (see {@link #fold}), for substring
+ * search. Every three-character window of a string is a trigram; its postings are the ids of
+ * the strings containing it, in increasing order because ids are added in order. A query's
+ * candidates are the intersection of its trigrams' postings, so the work depends on how rare
+ * the query is, not on how many strings there are. Candidates still need a {@code contains}
+ * check: "abcd" has the trigrams of "abc bcd" without containing it.
+ *
+ * Trigrams live in an open-addressing table keyed by the three chars packed into a long, so
+ * there is no boxing per trigram. Not thread-safe.
+ */
+final class TrigramIndex {
+
+    private static final int INITIAL_POSTINGS = 4;
+
+    private long[] grams = new long[64];      // grams[g] = packed trigram
+    private int[][] postings = new int[64][];
+    private int[] postingSizes = new int[64];
+    private int gramCount;
+    private int[] slots = new int[128];       // g + 1; 0 = empty
+
+    /** Lower case with accents stripped, so "Émile" and "emile" find each other. */
+    static String fold(String s) {
+        if (isFolded(s)) return s;
+        String decomposed = Normalizer.normalize(s.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) folded.append(c);
+        }
+        return folded.toString();
+    }
+
+    // Most titles are plain ASCII without capitals; those need no copy
+    private static boolean isFolded(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x80 || (c >= 'A' && c <= 'Z')) return false;
+        }
+        return true;
+    }
+
+    /** Indexes string {@code id}; ids must be added in increasing order. */
+    void add(int id, String folded) {
+        for (int i = 0; i + 3 <= folded.length(); i++) {
+            int g = gramFor(pack(folded, i), true);
+            int n = postingSizes[g];
+            int[] list = postings[g];
+            if (n > 0 && list[n - 1] == id) continue; // trigram repeats within this string
+            if (n == list.length) postings[g] = list = Arrays.copyOf(list, n * 2);
+            list[n] = id;
+            postingSizes[g] = n + 1;
+        }
+    }
+
+    /**
+     * Ids of strings containing every trigram of {@code foldedQuery}, ascending; a superset of
+     * the strings containing the query. Null if the query is shorter than a trigram, in which
+     * case the index can't narrow anything down.
+     */
+    int[] candidates(String foldedQuery) {
+        int queryGrams = foldedQuery.length() - 2;
+        if (queryGrams < 1) return null;
+        int[] gs = new int[queryGrams];
+        for (int i = 0; i < queryGrams; i++) {
+            int g = gramFor(pack(foldedQuery, i), false);
+            if (g < 0) return new int[0]; // a trigram no string has
+            gs[i] = g;
+        }
+        // Start from the rarest trigram so every intersection step is as small as it can be
+        int rarest = 0;
+        for (int i = 1; i < queryGrams; i++) {
+            if (postingSizes[gs[i]] < postingSizes[gs[rarest]]) rarest = i;
+        }
+        int n = postingSizes[gs[rarest]];
+        int[] result = Arrays.copyOf(postings[gs[rarest]], n);
+        for (int i = 0; i < queryGrams && n > 0; i++) {
+            if (gs[i] != gs[rarest]) n = intersect(result, n, postings[gs[i]], postingSizes[gs[i]]);
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+
+    /** Keeps the ids in {@code a[0..n)} that are also in {@code b[0..m)}; both ascending. Returns the new n. */
+    private static int intersect(int[] a, int n, int[] b, int m) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < n && j < m; i++) {
+            int id = a[i];
+            while (j < m && b[j] < id) j++;
+            if (j < m && b[j] == id) a[kept++] = id;
+        }
+        return kept;
+    }
+
+    private static long pack(String s, int at) {
+        return (long) s.charAt(at) << 32 | (long) s.charAt(at + 1) << 16 | s.charAt(at + 2);
+    }
+
+    /** Index of {@code gram}, added if {@code create}; -1 if absent and not created. */
+    private int gramFor(long gram, boolean create) {
+        int mask = slots.length - 1;
+        int i = mix(gram) & mask;
+        while (slots[i] != 0) {
+            int g = slots[i] - 1;
+            if (grams[g] == gram) return g;
+            i = (i + 1) & mask;
+        }
+        if (!create) return -1;
+        int g = gramCount++;
+        if (g == grams.length) {
+            grams = Arrays.copyOf(grams, g * 2);
+            postings = Arrays.copyOf(postings, g * 2);
+            postingSizes = Arrays.copyOf(postingSizes, g * 2);
+        }
+        grams[g] = gram;
+        postings[g] = new int[INITIAL_POSTINGS];
+        slots[i] = g + 1;
+        if (gramCount * 2 > slots.length) rehash();
+        return g;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int g = 0; g < gramCount; g++) {
+            int i = mix(grams[g]) & mask;
+            while (slots[i] != 0) i = (i + 1) & mask;
+            slots[i] = g + 1;
+        }
+    }
+
+    private static int mix(long gram) {
+        long h = gram * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,95 @@
+package com.moodtunes.network;
+
+import java.time.Duration;
+
+/**
+ * Request deadline for one route on one endpoint, derived from how fast it has actually been answering.
+ *
+ * Latencies go into a log-bucketed histogram (buckets 25% apart, counts halved every
+ * {@value #DECAY_EVERY} samples so old traffic fades out). The deadline is the
+ * {@code api.timeout.percentile} (default 99) latency times {@code api.timeout.multiplier}
+ * (default 2) plus {@code api.timeout.margin.ms} (default 250), clamped between
+ * {@code api.timeout.min.ms} (default 2000) and the request's own fixed timeout, which stays the
+ * ceiling. Until {@value #MIN_SAMPLES} samples are in, the ceiling is used as is.
+ *
+ * A timed-out request counts as a sample at twice its deadline, so an endpoint that got slower
+ * widens its deadline instead of timing out forever.
+ */
+public class AdaptiveTimeout {
+
+    private static final double PERCENTILE = Double.parseDouble(System.getProperty("api.timeout.percentile", "99"));
+    private static final double MULTIPLIER = Double.parseDouble(System.getProperty("api.timeout.multiplier", "2"));
+    private static final long MARGIN_MILLIS = Long.getLong("api.timeout.margin.ms", 250);
+    private static final long FLOOR_MILLIS = Long.getLong("api.timeout.min.ms", 2_000);
+
+    private static final double BUCKET_RATIO = 1.25;
+    private static final int BUCKETS = 54;          // upper bound of the last one is ~2 min
+    private static final int MIN_SAMPLES = 10;
+    private static final int DECAY_EVERY = 512;
+
+    private final long[] counts = new long[BUCKETS]; // guarded by this
+    private long total;                               // guarded by this
+    private long sinceDecay;                          // guarded by this
+
+    /** A response arrived after {@code millis}. */
+    public synchronized void record(long millis) {
+        counts[bucketOf(millis)]++;
+        total++;
+        if (++sinceDecay >= DECAY_EVERY) {
+            sinceDecay = 0;
+            total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] /= 2;
+                total += counts[i];
+            }
+        }
+    }
+
+    /** A request gave up after {@code deadlineMillis} without an answer. */
+    public void recordTimeout(long deadlineMillis) {
+        record(deadlineMillis * 2);
+    }
+
+    /**
+     * @param ceiling the request's fixed timeout; never exceeded
+     * @return the deadline to use for the next request to this endpoint
+     */
+    public Duration deadline(Duration ceiling) {
+        long p = percentileMillis();
+        if (p < 0) return ceiling;
+        long millis = Math.round(p * MULTIPLIER) + MARGIN_MILLIS;
+        millis = Math.max(FLOOR_MILLIS, Math.min(ceiling.toMillis(), millis));
+        return Duration.ofMillis(millis);
+    }
+
+    /** @return the configured percentile in ms (bucket upper bound), or -1 without enough samples */
+    public synchronized long percentileMillis() {
+        if (total < MIN_SAMPLES) return -1;
+        long rank = (long) Math.ceil(PERCENTILE / 100.0 * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) return upperBound(i);
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    /** e.g. "p99 180 ms -> 2000 ms (floor)", for diagnostics. */
+    public String describe(Duration ceiling) {
+        long p = percentileMillis();
+        if (p < 0) return "deadline " + ceiling.toMillis() + " ms (not enough samples)";
+        long millis = deadline(ceiling).toMillis();
+        String bound = millis == FLOOR_MILLIS ? " (floor)" : millis == ceiling.toMillis() ? " (ceiling)" : "";
+        return "p" + (int) PERCENTILE + " " + p + " ms -> deadline " + millis + " ms" + bound;
+    }
+
+    private static int bucketOf(long millis) {
+        if (millis <= 1) return 0;
+        int i = (int) Math.ceil(Math.log(millis) / Math.log(BUCKET_RATIO));
+        return Math.min(BUCKETS - 1, i);
+    }
+
+    private static long upperBound(int bucket) {
+        return Math.round(Math.pow(BUCKET_RATIO, bucket));
+    }
+}
@@ -0,0 +1,455 @@
+package com.moodtunes.network;
+
+import com.moodtunes.utils.AppExecutors;
+import javafx.application.Platform;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpClient.Redirect;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+public class ApiClient {
+    // Fixed request timeouts; the per-endpoint, per-route AdaptiveTimeout only ever shortens them
+    private static final Duration GET_TIMEOUT = Duration.ofSeconds(15);
+    private static final Duration POST_TIMEOUT = Duration.ofSeconds(20);
+
+    /** Runs continuations on the JavaFX Application Thread, e.g. {@code future.thenAcceptAsync(ui, ApiClient.FX_THREAD)}. */
+    public static final Executor FX_THREAD = Platform::runLater;
+
+    private final HttpClient client;
+    private final HttpClient noRedirectClient; // for reading Location headers ourselves
+    private final EndpointPool pool;
+    private final HttpCache cache = HttpCache.getDefault();
+    private final Resilience resilience;
+    private final Hedging hedging;
+
+    public ApiClient() {
+        this(defaultBaseUrl(), null);
+    }
+
+    public ApiClient(String baseUrl) {
+        this(baseUrl, null);
+    }
+
+    /**
+     * @param baseUrl  backend root, e.g. {@code http://localhost:5000}, or a comma-separated
+     *                 list of equivalent instances to spread requests over (see {@link EndpointPool})
+     * @param executor executor the HttpClient uses for async work and dependent stages;
+     *                 {@code null} uses the process-wide clients from {@link NetworkContext}, so
+     *                 the connection opened by warmUp() is the one later controllers reuse
+     */
+    public ApiClient(String baseUrl, Executor executor) {
+        NetworkContext net = NetworkContext.get();
+        this.pool = EndpointPool.forUrls(baseUrl);
+        this.resilience = Resilience.forBackend(pool.name());
+        this.hedging = Hedging.forBackend(pool.name());
+        this.client = executor == null ? net.client() : NetworkContext.newHttpClient(executor, Redirect.NORMAL);
+        this.noRedirectClient = executor == null ? net.noRedirectClient() : NetworkContext.newHttpClient(executor, Redirect.NEVER);
+        pool.startHealthChecks(net.scheduler(), client);
+    }
+
+    private static String defaultBaseUrl() {
+        return configuredBaseUrls("http://localhost:5000");
+    }
+
+    /**
+     * Backend URL(s) from {@code api.base.urls} / {@code MOODTUNES_API_URLS} (comma-separated),
+     * else {@code api.base.url} / {@code MOODTUNES_API_URL}, else {@code fallback}.
+     */
+    public static String configuredBaseUrls(String fallback) {
+        return Optional.ofNullable(System.getProperty("api.base.urls"))
+            .or(() -> Optional.ofNullable(System.getenv("MOODTUNES_API_URLS")))
+            .or(() -> Optional.ofNullable(System.getProperty("api.base.url")))
+            .or(() -> Optional.ofNullable(System.getenv("MOODTUNES_API_URL")))
+            .orElse(fallback);
+    }
+
+    public HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return sendBlocking(path, this::buildGet, Compression.ofString("GET " + path));
+    }
+
+    public HttpResponse<String> post(String path, String json) throws IOException, InterruptedException {
+        return sendBlocking(path, uri -> buildPost(uri, json), Compression.ofString("POST " + path));
+    }
+
+    // === async (non-blocking) variants ===
+    // No thread is parked while the exchange is in flight; the future completes on the
+    // HttpClient's executor. Hop back to the UI with thenAcceptAsync(..., FX_THREAD).
+
+    public CompletableFuture<HttpResponse<String>> getAsync(String path) {
+        return send(client, path, this::buildGet, Compression.ofString("GET " + path));
+    }
+
+    public CompletableFuture<HttpResponse<String>> postAsync(String path, String json) {
+        return send(client, path, uri -> buildPost(uri, json), Compression.ofString("POST " + path));
+    }
+
+    /**
+     * Like {@link #getJsonOrThrow} but async: completes exceptionally with an HttpStatusException on non-2xx.
+     * Server faults are retried with backoff; fails fast with CircuitOpenException while the backend is down.
+     */
+    public CompletableFuture<String> getJsonAsync(String path) {
+        return resilience.execute(true, () -> {
+            var exchange = getAsync(path);
+            return abortOnCancel(exchange.thenApply(resp -> bodyOrThrow("GET", path, resp)), exchange);
+        });
+    }
+
+    /**
+     * Like {@link #postJsonOrThrow} but async: completes exceptionally with an HttpStatusException on non-2xx.
+     * Never retried (a POST may not be safe to repeat), but fails fast while the circuit is open.
+     */
+    public CompletableFuture<String> postJsonAsync(String path, String json) {
+        return resilience.execute(false, () -> {
+            var exchange = postAsync(path, json);
+            return abortOnCancel(exchange.thenApply(resp -> bodyOrThrow("POST", path, resp)), exchange);
+        });
+    }
+
+    /**
+     * Streams the (decompressed) response body into {@code decoder} instead of buffering it as a String.
+     * The decoder runs on {@link AppExecutors#io()} (never on the HttpClient's selector thread,
+     * since reading the InputStream blocks until the bytes arrive).
+     * Completes exceptionally with an HttpStatusException on non-2xx.
+     */
+    public <T> CompletableFuture<T> postJsonAsync(String path, String json, BodyDecoder<T> decoder) {
+        return resilience.execute(false, () -> {
+            var exchange = send(client, path, uri -> buildPost(uri, json), HttpResponse.BodyHandlers.ofInputStream());
+            return abortOnCancel(exchange.thenApplyAsync(
+                resp -> decodeOrThrow("POST", path, resp, decoder), AppExecutors.io()), exchange);
+        });
+    }
+
+    /**
+     * Same as {@link #postJsonAsync(String, String, BodyDecoder)} but goes through the HTTP cache
+     * (keyed by URL and request body, for POST endpoints that are really lookups like /playlist).
+     * A fresh entry is answered without any request; a stale one is revalidated with
+     * If-None-Match / If-Modified-Since and a 304 reuses the already-decoded value.
+     *
+     * Because such lookups are idempotent, server faults are retried with backoff. If the backend
+     * still fails (or its circuit is open) and an entry exists, the last good value is served
+     * even though it's stale; callers only see the error when there's nothing cached at all.
+     * With {@code -Dapi.hedge.enabled=true} a slow attempt is hedged (see {@link Hedging}).
+     */
+    public <T> CompletableFuture<T> postJsonCachedAsync(String path, String json, BodyDecoder<T> decoder) {
+        // Keyed by the primary endpoint's URL: every endpoint in the pool serves the same data
+        String key = "POST " + cacheUrl(path) + " " + json;
+        HttpCache.Entry cached = cache.lookup(key);
+        if (cached != null && cached.isFresh()) {
+            try {
+                return CompletableFuture.completedFuture(cache.valueOf(cached, decoder));
+            } catch (IOException | RuntimeException e) {
+                System.err.println("HTTP cache: unusable entry for " + key + ", refetching: " + e.getMessage());
+                cached = null;
+            }
+        }
+
+        HttpCache.Entry validated = cached;
+        var call = resilience.execute(true, () ->
+            hedging.execute("POST " + path, () -> cachedExchange(path, json, key, validated, decoder)));
+        if (validated == null) return call;
+        return abortOnCancel(call.exceptionallyCompose(err -> {
+            Throwable cause = rootCause(err);
+            if (!Resilience.isServerFault(cause)) return CompletableFuture.failedFuture(cause);
+            try {
+                T stale = cache.valueOf(validated, decoder);
+                System.err.println("Backend unavailable (" + cause.getMessage() + "), serving last cached copy of " + key);
+                return CompletableFuture.completedFuture(stale);
+            } catch (IOException | RuntimeException e) {
+                return CompletableFuture.failedFuture(cause);
+            }
+        }), call);
+    }
+
+    private <T> CompletableFuture<T> cachedExchange(String path, String json, String key,
+                                                    HttpCache.Entry validated, BodyDecoder<T> decoder) {
+        var exchange = send(client, path, uri -> {
+            HttpRequest.Builder request = postRequest(uri, json);
+            if (validated != null) cache.addValidators(validated, request);
+            return request.build();
+        }, HttpResponse.BodyHandlers.ofInputStream());
+        return abortOnCancel(exchange.thenApplyAsync(resp -> {
+            if (resp.statusCode() == 304 && validated != null) {
+                try {
+                    resp.body().close(); // a 304 has no body; just release the connection
+                    cache.revalidated(validated, resp.headers());
+                    return cache.valueOf(validated, decoder);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }
+            return decodeOrThrow("POST", path, resp, in -> {
+                if (!HttpCache.isStorable(resp.headers())) return decoder.decode(in);
+                // Keep a copy of the decoded bytes for the disk tier while the decoder streams
+                ByteArrayOutputStream copy = new ByteArrayOutputStream();
+                T value = decoder.decode(HttpCache.tee(in, copy));
+                cache.store(key, resp.headers(), copy.toByteArray(), value);
+                return value;
+            });
+        }, AppExecutors.io()), exchange);
+    }
+
+    /** Turns a streamed response body into a value. */
+    @FunctionalInterface
+    public interface BodyDecoder<T> {
+        T decode(InputStream body) throws IOException;
+    }
+
+    /**
+     * Dependent stages don't pass cancellation upstream; this wires {@code dependent} so
+     * cancelling it also cancels {@code upstream} (for a sendAsync future: aborts the exchange).
+     */
+    static <T> CompletableFuture<T> abortOnCancel(CompletableFuture<T> dependent, CompletableFuture<?> upstream) {
+        dependent.whenComplete((value, err) -> {
+            if (dependent.isCancelled()) upstream.cancel(true);
+        });
+        return dependent;
+    }
+
+    /**
+     * GETs {@code path} without following redirects and returns where it points: the absolute
+     * Location of a 3xx, or the request URL itself if the server answered 2xx directly.
+     * Completes exceptionally with an HttpStatusException for anything else.
+     */
+    public CompletableFuture<String> resolveRedirectAsync(String path) {
+        return resilience.execute(true, () -> sendForLocation(path));
+    }
+
+    private CompletableFuture<String> sendForLocation(String path) {
+        var exchange = send(noRedirectClient, path, uri -> HttpRequest.newBuilder()
+            .uri(uri)
+            .timeout(GET_TIMEOUT)
+            .GET()
+            .build(), HttpResponse.BodyHandlers.discarding());
+        return abortOnCancel(exchange.thenApply(resp -> {
+            int status = resp.statusCode();
+            if (status / 100 == 3) {
+                return resp.headers().firstValue("Location")
+                    .map(location -> resp.uri().resolve(location).toString())
+                    .orElseThrow(() -> new CompletionException(
+                        new HttpStatusException("GET " + resp.uri() + " redirected without Location", status, null)));
+            }
+            if (status / 100 == 2) return resp.uri().toString();
+            throw new CompletionException(
+                new HttpStatusException("GET " + resp.uri() + " failed: " + status, status, null));
+        }), exchange);
+    }
+
+    /**
+     * Opens a connection to every backend endpoint ahead of the first real request so DNS, TCP
+     * and TLS setup happen while the welcome screen is showing. The connections stay in the
+     * shared pool (kept alive for jdk.httpclient.keepalive.timeout, 20 min by default), and the
+     * timings seed the pool's latency estimates.
+     * Never fails: errors are logged and the future completes normally.
+     */
+    public CompletableFuture<Void> warmUp() {
+        return CompletableFuture.allOf(pool.endpoints().stream()
+            .map(this::warmUp)
+            .toArray(CompletableFuture[]::new));
+    }
+
+    private CompletableFuture<Void> warmUp(EndpointPool.Endpoint endpoint) {
+        long start = System.nanoTime();
+        HttpRequest req = HttpRequest.newBuilder()
+            .uri(URI.create(endpoint.resolve("/")))
+            .timeout(Duration.ofSeconds(5))
+            .method("HEAD", HttpRequest.BodyPublishers.noBody())
+            .build();
+        return client.sendAsync(req, HttpResponse.BodyHandlers.discarding())
+            .handle((resp, err) -> {
+                long ms = (System.nanoTime() - start) / 1_000_000;
+                if (err != null) {
+                    pool.recordFailure(endpoint, rootCause(err).toString());
+                    System.err.println("Warm-up of " + endpoint.getBaseUrl() + " failed after " + ms + " ms: "
+                        + rootCause(err).getMessage());
+                } else {
+                    pool.recordHealthy(endpoint, ms); // a HEAD says nothing about real request deadlines
+                    System.out.println("Warm-up of " + endpoint.getBaseUrl() + " -> " + resp.statusCode()
+                        + " over " + resp.version() + " in " + ms + " ms");
+                }
+                return null;
+            });
+    }
+
+    /**
+     * Sends to the best endpoint in the pool (or straight to {@code path} if it is already an
+     * absolute URL) with that endpoint's adaptive deadline, and reports the outcome back to the
+     * pool for routing and timeouts.
+     */
+    private <T> CompletableFuture<HttpResponse<T>> send(HttpClient via, String path, Function<URI, HttpRequest> request,
+                                                        HttpResponse.BodyHandler<T> handler) {
+        if (isAbsolute(path)) return via.sendAsync(request.apply(URI.create(path)), handler);
+        EndpointPool.Endpoint endpoint = pool.pick();
+        HttpRequest req = withDeadline(endpoint, request.apply(URI.create(endpoint.resolve(path))));
+        long start = System.nanoTime();
+        var exchange = via.sendAsync(req, handler);
+        exchange.whenComplete((resp, err) -> record(endpoint, req, start, resp, err));
+        return exchange; // the original future, so cancelling it still aborts the exchange
+    }
+
+    private <T> HttpResponse<T> sendBlocking(String path, Function<URI, HttpRequest> request,
+                                             HttpResponse.BodyHandler<T> handler) throws IOException, InterruptedException {
+        if (isAbsolute(path)) return client.send(request.apply(URI.create(path)), handler);
+        EndpointPool.Endpoint endpoint = pool.pick();
+        HttpRequest req = withDeadline(endpoint, request.apply(URI.create(endpoint.resolve(path))));
+        long start = System.nanoTime();
+        try {
+            HttpResponse<T> resp = client.send(req, handler);
+            record(endpoint, req, start, resp, null);
+            return resp;
+        } catch (IOException e) {
+            record(endpoint, req, start, null, e);
+            throw e;
+        }
+    }
+
+    /** {@code request} with its timeout replaced by the endpoint's current deadline (its own timeout is the ceiling). */
+    private HttpRequest withDeadline(EndpointPool.Endpoint endpoint, HttpRequest request) {
+        if (request.timeout().isEmpty()) return request;
+        Duration deadline = pool.timeoutFor(endpoint, route(request), request.timeout().get());
+        if (deadline.equals(request.timeout().get())) return request;
+        return HttpRequest.newBuilder(request, (name, value) -> true).timeout(deadline).build();
+    }
+
+    private static String route(HttpRequest request) {
+        return EndpointPool.routeOf(request.method(), request.uri());
+    }
+
+    private void record(EndpointPool.Endpoint endpoint, HttpRequest request, long startNanos,
+                        HttpResponse<?> resp, Throwable err) {
+        if (err != null) {
+            Throwable cause = rootCause(err);
+            if (cause instanceof HttpTimeoutException && !(cause instanceof HttpConnectTimeoutException)) {
+                // Connected but no answer in time: widen the deadline (connect failures are the pool's business)
+                request.timeout().ifPresent(t -> endpoint.timeout(route(request)).recordTimeout(t.toMillis()));
+            }
+            if (!(cause instanceof CancellationException)) pool.recordFailure(endpoint, cause.toString());
+        } else if (resp.statusCode() == 503) {
+            pool.recordFailure(endpoint, "503");
+        } else {
+            pool.recordSuccess(endpoint, route(request), (System.nanoTime() - startNanos) / 1_000_000);
+        }
+    }
+
+    private HttpRequest buildGet(URI uri) {
+        return HttpRequest.newBuilder()
+            .uri(uri)
+            .timeout(GET_TIMEOUT) // per-request timeout (connect+read), shortened per endpoint in send()
+            .header("Accept", "application/json")
+            .header("Accept-Encoding", Compression.ACCEPT_ENCODING)
+            .GET()
+            .build();
+    }
+
+    private HttpRequest buildPost(URI uri, String json) {
+        return postRequest(uri, json).build();
+    }
+
+    private HttpRequest.Builder postRequest(URI uri, String json) {
+        return HttpRequest.newBuilder()
+            .uri(uri)
+            .timeout(POST_TIMEOUT)
+            .header("Accept", "application/json")
+            .header("Accept-Encoding", Compression.ACCEPT_ENCODING)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8));
+    }
+
+    private String bodyOrThrow(String method, String path, HttpResponse<String> resp) {
+        if (resp.statusCode() / 100 != 2) {
+            throw new CompletionException(statusError(method, resp.uri(), resp.statusCode(), resp.body()));
+        }
+        return resp.body();
+    }
+
+    private <T> T decodeOrThrow(String method, String path, HttpResponse<InputStream> resp, BodyDecoder<T> decoder) {
+        try (InputStream in = Compression.decoding(method + " " + path, resp.headers(), resp.body())) {
+            if (resp.statusCode() / 100 != 2) {
+                String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                throw statusError(method, resp.uri(), resp.statusCode(), body);
+            }
+            return decoder.decode(in);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static HttpStatusException statusError(String method, URI uri, int statusCode, String body) {
+        return new HttpStatusException(
+            method + " " + uri + " failed: " + statusCode + " -> " + body, statusCode, body);
+    }
+
+    /**
+     * Absolute URL for {@code path} on the endpoint the pool would pick right now
+     * (full URLs are returned as-is).
+     */
+    public String resolve(String path) {
+        // If caller passed a full URL, use it as-is
+        if (isAbsolute(path)) return path;
+        return pool.pick().resolve(path);
+    }
+
+    /** Stable URL for {@code path} to key caches by, whichever endpoint serves it. */
+    public String cacheUrl(String path) {
+        if (isAbsolute(path)) return path;
+        return pool.primary().resolve(path);
+    }
+
+    private static boolean isAbsolute(String path) {
+        return path.startsWith("http://") || path.startsWith("https://");
+    }
+
+    /** The configured backend URL list (one URL unless several instances are pooled). */
+    public String getBaseUrl() { return pool.name(); }
+
+    public EndpointPool getEndpointPool() { return pool; }
+
+    /** Endpoints with their latency and the request deadline each currently gets, for diagnostics. */
+    public String describeTimeouts() {
+        return pool.describe(POST_TIMEOUT);
+    }
+
+    /** Circuit breaker shared by every client of this backend. */
+    public CircuitBreaker getCircuitBreaker() { return resilience.getBreaker(); }
+
+    /** Unwraps the CompletionException/ExecutionException layers async stages add around the real failure. */
+    public static Throwable rootCause(Throwable t) {
+        while ((t instanceof CompletionException || t instanceof ExecutionException)
+                && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t;
+    }
+
+    // Optional helpers if you want to throw on non-2xx:
+    public String postJsonOrThrow(String path, String json) throws IOException, InterruptedException {
+        var resp = post(path, json);
+        if (resp.statusCode() / 100 != 2) {
+            throw statusError("POST", resp.uri(), resp.statusCode(), resp.body());
+        }
+        return resp.body();
+    }
+
+    public String getJsonOrThrow(String path) throws IOException, InterruptedException {
+        var resp = get(path);
+        if (resp.statusCode() / 100 != 2) {
+            throw statusError("GET", resp.uri(), resp.statusCode(), resp.body());
+        }
+        return resp.body();
+    }
+}
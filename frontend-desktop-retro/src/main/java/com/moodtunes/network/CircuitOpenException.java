@@ -0,0 +1,22 @@
+package com.moodtunes.network;
+
+import java.io.IOException;
+
+/**
+ * Thrown (or used to complete a future exceptionally) when a call is refused because the
+ * backend's circuit breaker is open.
+ */
+public class CircuitOpenException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterMillis;
+
+    public CircuitOpenException(String message, long retryAfterMillis) {
+        super(message);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /** Roughly how long until the breaker lets a probe request through. */
+    public long getRetryAfterMillis() { return retryAfterMillis; }
+}
@@ -0,0 +1,232 @@
+package com.moodtunes.network;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The set of backend instances one ApiClient talks to.
+ *
+ * Every request goes to the healthy endpoint with the lowest EWMA latency (endpoints we have
+ * no measurement for yet count as 0, so each one gets tried; a failure doubles the estimate,
+ * to at least {@value #FAILURE_PENALTY_MILLIS} ms). An endpoint is ejected after
+ * {@value #EJECT_AFTER_FAILURES} consecutive connection failures / 503s and comes back once a
+ * background health check ({@code HEAD /} every {@code api.health.interval.seconds}, default 10)
+ * succeeds. If every endpoint is ejected we still route to the least recently ejected one
+ * rather than fail without trying.
+ *
+ * Each endpoint also keeps an {@link AdaptiveTimeout} per route (see {@link #routeOf}), so a
+ * fast endpoint gets a short request deadline and a slow one a longer one (never longer than the
+ * request's fixed timeout), and quick calls like the stream redirect lookup don't pull the
+ * deadline of a slow POST /playlist down to the floor. Warm-up and health-check HEADs only seed
+ * the latency estimate; they never go into a timeout histogram.
+ *
+ * Configure with a comma-separated list: {@code -Dapi.base.urls=http://a:5000,http://b:5000}.
+ */
+public class EndpointPool {
+
+    private static final double EWMA_ALPHA = 0.3;
+    private static final int EJECT_AFTER_FAILURES = 3;
+    private static final double FAILURE_PENALTY_MILLIS = 1_000; // a failure makes an endpoint look at least this slow
+    private static final long HEALTH_INTERVAL_SECONDS = Long.getLong("api.health.interval.seconds", 10);
+
+    private static final Map<String, EndpointPool> pools = new ConcurrentHashMap<>();
+
+    /** One backend instance. */
+    public static final class Endpoint {
+        private final String baseUrl;
+        private double ewmaMillis = -1;   // guarded by the pool; -1 = not measured yet
+        private int consecutiveFailures;  // guarded by the pool
+        private long ejectedAtMillis;     // guarded by the pool; 0 = in rotation
+        private final Map<String, AdaptiveTimeout> timeouts = new ConcurrentHashMap<>(); // by route
+        private final Map<String, Long> loggedDeadlines = new HashMap<>(); // guarded by the pool
+
+        Endpoint(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        public String getBaseUrl() { return baseUrl; }
+
+        /** The deadline histogram for {@code route} on this endpoint. */
+        public AdaptiveTimeout timeout(String route) {
+            return timeouts.computeIfAbsent(route, r -> new AdaptiveTimeout());
+        }
+
+        /** Absolute URL for {@code path} on this endpoint. */
+        public String resolve(String path) {
+            if (path.startsWith("/")) {
+                return baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) + path : baseUrl + path;
+            } else {
+                return baseUrl.endsWith("/") ? baseUrl + path : baseUrl + "/" + path;
+            }
+        }
+    }
+
+    private final String name;
+    private final List<Endpoint> endpoints;
+    private ScheduledExecutorService healthChecks; // guarded by this; null = not running
+
+    private EndpointPool(String name, List<Endpoint> endpoints) {
+        this.name = name;
+        this.endpoints = endpoints;
+    }
+
+    /** The shared pool for a comma-separated list of base URLs. */
+    public static EndpointPool forUrls(String baseUrls) {
+        return pools.computeIfAbsent(baseUrls.trim(), urls -> {
+            List<Endpoint> list = new ArrayList<>();
+            for (String url : urls.split(",")) {
+                if (!url.isBlank()) list.add(new Endpoint(url.trim()));
+            }
+            if (list.isEmpty()) throw new IllegalArgumentException("No backend URL in '" + urls + "'");
+            return new EndpointPool(urls, Collections.unmodifiableList(list));
+        });
+    }
+
+    /** The configured URL list; identifies this backend for breakers, caches and logs. */
+    public String name() { return name; }
+
+    public List<Endpoint> endpoints() { return endpoints; }
+
+    /** The first configured endpoint. All endpoints serve the same data, so cache keys use its URLs. */
+    public Endpoint primary() { return endpoints.get(0); }
+
+    /** Where the next request should go. */
+    public synchronized Endpoint pick() {
+        if (endpoints.size() == 1) return endpoints.get(0);
+        Endpoint best = null;
+        for (Endpoint e : endpoints) {
+            if (e.ejectedAtMillis != 0) continue;
+            if (best == null || Math.max(e.ewmaMillis, 0) < Math.max(best.ewmaMillis, 0)) best = e;
+        }
+        if (best != null) return best;
+        for (Endpoint e : endpoints) {
+            if (best == null || e.ejectedAtMillis < best.ejectedAtMillis) best = e;
+        }
+        return best;
+    }
+
+    /**
+     * A request on {@code route} (see {@link #routeOf}) answered in {@code millis}.
+     */
+    public synchronized void recordSuccess(Endpoint e, String route, long millis) {
+        e.timeout(route).record(millis);
+        e.ewmaMillis = e.ewmaMillis < 0 ? millis : EWMA_ALPHA * millis + (1 - EWMA_ALPHA) * e.ewmaMillis;
+        restore(e);
+    }
+
+    /**
+     * A warm-up or health check passed. Only seeds the latency estimate: a cheap HEAD says little about
+     * how long real requests take, and must not average a slow endpoint back to looking fast.
+     */
+    public synchronized void recordHealthy(Endpoint e, long millis) {
+        if (e.ewmaMillis < 0) e.ewmaMillis = millis;
+        restore(e);
+    }
+
+    private void restore(Endpoint e) {
+        e.consecutiveFailures = 0;
+        if (e.ejectedAtMillis != 0) {
+            e.ejectedAtMillis = 0;
+            System.out.println("✅ Endpoint " + e.baseUrl + " back in rotation (" + Math.round(e.ewmaMillis) + " ms)");
+        }
+    }
+
+    public synchronized void recordFailure(Endpoint e, String reason) {
+        e.consecutiveFailures++;
+        e.ewmaMillis = Math.max(e.ewmaMillis * 2, FAILURE_PENALTY_MILLIS);
+        if (endpoints.size() > 1 && e.ejectedAtMillis == 0 && e.consecutiveFailures >= EJECT_AFTER_FAILURES) {
+            e.ejectedAtMillis = System.currentTimeMillis();
+            System.err.println("⚠️ Ejecting endpoint " + e.baseUrl + " after " + e.consecutiveFailures
+                + " failures (" + reason + ")");
+        }
+    }
+
+    /**
+     * The request deadline for {@code route} on {@code e}, at most {@code ceiling}. Logs when it
+     * moves by more than a quarter, so a slow network shows up in the console.
+     */
+    public synchronized Duration timeoutFor(Endpoint e, String route, Duration ceiling) {
+        AdaptiveTimeout timeout = e.timeout(route);
+        Duration deadline = timeout.deadline(ceiling);
+        long millis = deadline.toMillis();
+        Long logged = e.loggedDeadlines.get(route);
+        if (logged == null) {
+            e.loggedDeadlines.put(route, millis);
+        } else if (Math.abs(millis - logged) * 4 > logged) {
+            System.out.println("⏱️ Timeout for " + route + " on " + e.baseUrl + " now " + millis + " ms (was "
+                + logged + " ms; " + timeout.describe(ceiling) + ")");
+            e.loggedDeadlines.put(route, millis);
+        }
+        return deadline;
+    }
+
+    /**
+     * The histogram key for a request: method plus at most the first two path segments, so
+     * "/audius/stream/{id}" lookups share one route whatever the track, and the query is ignored.
+     */
+    public static String routeOf(String method, URI uri) {
+        String path = uri.getPath() == null || uri.getPath().isEmpty() ? "/" : uri.getPath();
+        int end = path.length();
+        int slash = path.indexOf('/', 1);
+        if (slash > 0) {
+            int second = path.indexOf('/', slash + 1);
+            if (second > 0) end = second;
+        }
+        return method + " " + path.substring(0, end);
+    }
+
+    /**
+     * Starts the background health checks on {@code scheduler} (once per scheduler, so they
+     * start again after a NetworkContext restart; pointless with a single endpoint).
+     */
+    synchronized void startHealthChecks(ScheduledExecutorService scheduler, HttpClient client) {
+        if (healthChecks == scheduler || endpoints.size() < 2) return;
+        healthChecks = scheduler;
+        scheduler.scheduleWithFixedDelay(() -> endpoints.forEach(e -> check(client, e)),
+            HEALTH_INTERVAL_SECONDS, HEALTH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private void check(HttpClient client, Endpoint e) {
+        long start = System.nanoTime();
+        HttpRequest req = HttpRequest.newBuilder()
+            .uri(URI.create(e.resolve("/")))
+            .timeout(Duration.ofSeconds(5))
+            .method("HEAD", HttpRequest.BodyPublishers.noBody())
+            .build();
+        client.sendAsync(req, HttpResponse.BodyHandlers.discarding()).whenComplete((resp, err) -> {
+            if (err != null) {
+                recordFailure(e, ApiClient.rootCause(err).toString());
+            } else if (resp.statusCode() >= 500) {
+                recordFailure(e, "health check " + resp.statusCode());
+            } else {
+                recordHealthy(e, (System.nanoTime() - start) / 1_000_000);
+            }
+        });
+    }
+
+    /**
+     * One line per endpoint, for diagnostics: latency estimate and, per route, the deadline a
+     * request with a {@code ceiling} timeout would currently get.
+     */
+    public synchronized String describe(Duration ceiling) {
+        StringBuilder sb = new StringBuilder();
+        for (Endpoint e : endpoints) {
+            if (sb.length() > 0) sb.append(", ");
+            sb.append(e.baseUrl).append(e.ejectedAtMillis != 0 ? " [ejected]" : "")
+              .append(e.ewmaMillis < 0 ? " ?" : " " + Math.round(e.ewmaMillis) + " ms");
+            e.timeouts.forEach((route, t) -> sb.append(", ").append(route).append(": ").append(t.describe(ceiling)));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,101 @@
+package com.moodtunes.network;
+
+import com.moodtunes.utils.AppExecutors;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpClient.Redirect;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * The process-wide network resources every ApiClient shares: one HttpClient (plus a twin
+ * that doesn't follow redirects, for reading Location headers), so one connection pool and
+ * one selector thread however many screens are opened, and the scheduler for endpoint
+ * health checks. Background work runs on {@link AppExecutors#io()}.
+ *
+ * Main calls {@link #start()} on launch and {@link #shutdown()} from {@code Application.stop},
+ * which JavaFX runs once the last window is closed. Code that runs without Main (tools,
+ * smoke tests) gets a context created on first use.
+ */
+public final class NetworkContext {
+
+    private static final Duration SHUTDOWN_GRACE = Duration.ofSeconds(2);
+
+    private static NetworkContext current; // guarded by NetworkContext.class
+
+    private final HttpClient client;
+    private final HttpClient noRedirectClient;
+    private final ScheduledExecutorService scheduler;
+
+    private NetworkContext() {
+        this.client = newHttpClient(AppExecutors.httpClient(), Redirect.NORMAL);
+        this.noRedirectClient = newHttpClient(AppExecutors.httpClient(), Redirect.NEVER);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "endpoint-health");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Creates the shared context if there is none yet. */
+    public static synchronized NetworkContext start() {
+        if (current == null) current = new NetworkContext();
+        return current;
+    }
+
+    /** The shared context, started on demand. */
+    public static NetworkContext get() {
+        return start();
+    }
+
+    /**
+     * Stops health checks, aborts exchanges still in flight and closes the connection pool
+     * (on Java 21+; before that HttpClient has no close, and its selector thread dies with the
+     * client), then gives pending background work such as cache writes a moment to finish.
+     * A later {@link #get()} starts a fresh context.
+     */
+    public static void shutdown() {
+        NetworkContext ctx;
+        synchronized (NetworkContext.class) {
+            ctx = current;
+            current = null;
+        }
+        if (ctx == null) return;
+        ctx.scheduler.shutdownNow();
+        shutdownNow(ctx.client);
+        shutdownNow(ctx.noRedirectClient);
+        AppExecutors.shutdown(SHUTDOWN_GRACE);
+        System.out.println("🔌 Network shut down");
+    }
+
+    public HttpClient client() { return client; }
+
+    public HttpClient noRedirectClient() { return noRedirectClient; }
+
+    ScheduledExecutorService scheduler() { return scheduler; }
+
+    static HttpClient newHttpClient(Executor executor, Redirect redirect) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            // Prefer HTTP/2 so concurrent requests multiplex over one connection;
+            // the client falls back to HTTP/1.1 keep-alive when the server can't do h2.
+            .version(HttpClient.Version.HTTP_2)
+            // Redirects are fine for normal API calls; JavaFX Media follows its own redirects separately.
+            .followRedirects(redirect);
+        if (executor != null) builder.executor(executor);
+        return builder.build();
+    }
+
+    /** {@code HttpClient.shutdownNow()}, looked up reflectively so this still compiles on Java 17. */
+    private static void shutdownNow(HttpClient client) {
+        try {
+            HttpClient.class.getMethod("shutdownNow").invoke(client);
+        } catch (NoSuchMethodException e) {
+            // Java 17: nothing to close explicitly
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            System.err.println("Closing HttpClient failed: " + e);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.moodtunes.network;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+import com.moodtunes.models.Song;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single-pass decoder for {@code /playlist} (and batched {@code /playlists}) responses.
+ *
+ * Reads the body straight off the response stream with Gson's JsonReader and builds Songs
+ * as it goes ({@link TrackAdapter}): no full-body String, no JsonObject tree. Fields we
+ * don't use (artwork, permalink, stream_url, ...) are skipped without being materialized.
+ */
+public final class PlaylistDecoder {
+
+    private PlaylistDecoder() {
+    }
+
+    /**
+     * @return the tracks as an unmodifiable list (empty if the body has no "tracks")
+     * @throws JsonParseException if the body is not the expected JSON shape
+     */
+    public static List<Song> decode(InputStream body) throws IOException {
+        return decodePage(body).songs();
+    }
+
+    /**
+     * Like {@link #decode} but keeps the paging cursor as well.
+     * @throws JsonParseException if the body is not the expected JSON shape
+     */
+    public static PlaylistPage decodePage(InputStream body) throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        try {
+            return readPlaylist(reader);
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new JsonParseException("Unexpected playlist JSON: " + e.getMessage(), e);
+        } catch (MalformedJsonException e) {
+            throw new JsonParseException("Malformed playlist JSON: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Decodes a {@code /playlists} body: {@code {"playlists": {"<feeling>": <playlist>, ...}}}.
+     * Feelings the backend couldn't look up are simply absent from the map.
+     *
+     * @return feeling -> first page of its playlist, in response order
+     * @throws JsonParseException if the body is not the expected JSON shape
+     */
+    public static Map<String, PlaylistPage> decodeBatch(InputStream body) throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        Map<String, PlaylistPage> playlists = new LinkedHashMap<>();
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.nextName().equals("playlists") && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String feeling = reader.nextName();
+                        playlists.put(feeling, readPlaylist(reader));
+                    }
+                    reader.endObject();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new JsonParseException("Unexpected playlists JSON: " + e.getMessage(), e);
+        } catch (MalformedJsonException e) {
+            throw new JsonParseException("Malformed playlists JSON: " + e.getMessage(), e);
+        }
+        return playlists;
+    }
+
+    /**
+     * One playlist object ({@code {"feeling": ..., "tracks": [...], "next_cursor": ...}});
+     * other fields are skipped.
+     */
+    private static PlaylistPage readPlaylist(JsonReader reader) throws IOException {
+        List<Song> songs = new ArrayList<>();
+        String nextCursor = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (name.equals("tracks") && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    Song song = TrackAdapter.INSTANCE.read(reader);
+                    if (song != null) songs.add(song);
+                }
+                reader.endArray();
+            } else if (name.equals("next_cursor")) {
+                nextCursor = TrackAdapter.nextStringOrNull(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        // Coalesced callers share this list, so nobody may mutate it
+        return new PlaylistPage(Collections.unmodifiableList(songs), nextCursor);
+    }
+}
@@ -0,0 +1,138 @@
+package com.moodtunes.network;
+
+import com.moodtunes.utils.AppExecutors;
+
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.IOException;
+import java.nio.charset.CharacterCodingException;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.ZipException;
+
+/**
+ * Retry with jittered exponential backoff plus a per-backend circuit breaker.
+ *
+ * Only server faults are retried or counted against the breaker: transport errors (any
+ * IOException from the exchange) and 5xx. A 4xx or a malformed body would fail the same way again.
+ * Non-idempotent calls are never retried, but still go through the breaker.
+ */
+public class Resilience {
+
+    private static final int MAX_ATTEMPTS = Integer.getInteger("api.retry.attempts", 3);
+    private static final long BASE_DELAY_MILLIS = 250;
+    private static final long MAX_DELAY_MILLIS = 4_000;
+    private static final int BREAKER_THRESHOLD = 5;
+    private static final long BREAKER_OPEN_MILLIS = 30_000;
+
+    // One breaker per backend, shared by every ApiClient talking to it
+    private static final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    private final CircuitBreaker breaker;
+
+    private Resilience(CircuitBreaker breaker) {
+        this.breaker = breaker;
+    }
+
+    public static Resilience forBackend(String baseUrl) {
+        return new Resilience(breakers.computeIfAbsent(baseUrl,
+            url -> new CircuitBreaker(url, BREAKER_THRESHOLD, BREAKER_OPEN_MILLIS)));
+    }
+
+    public CircuitBreaker getBreaker() {
+        return breaker;
+    }
+
+    /**
+     * Runs {@code attempt} under the breaker, retrying server faults when {@code idempotent}.
+     * Cancelling the returned future cancels the attempt in flight and stops further retries.
+     * Completes exceptionally with {@link CircuitOpenException} while the breaker is open.
+     */
+    public <T> CompletableFuture<T> execute(boolean idempotent, Supplier<CompletableFuture<T>> attempt) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        run(result, attempt, idempotent ? MAX_ATTEMPTS : 1, 1);
+        return result;
+    }
+
+    private <T> void run(CompletableFuture<T> result, Supplier<CompletableFuture<T>> attempt, int maxAttempts, int n) {
+        if (result.isDone()) return; // cancelled while we were backing off
+
+        if (!breaker.tryAcquire()) {
+            long wait = breaker.retryAfterMillis();
+            result.completeExceptionally(new CircuitOpenException(
+                "Backend temporarily unavailable; retrying in " + (wait + 999) / 1000 + "s", wait));
+            return;
+        }
+
+        CompletableFuture<T> current;
+        try {
+            current = attempt.get();
+        } catch (RuntimeException e) {
+            breaker.recordIgnored();
+            result.completeExceptionally(e);
+            return;
+        }
+        result.whenComplete((v, err) -> {
+            if (result.isCancelled()) current.cancel(true);
+        });
+
+        current.whenComplete((value, err) -> {
+            if (err == null) {
+                breaker.recordSuccess();
+                result.complete(value);
+                return;
+            }
+            Throwable cause = ApiClient.rootCause(err);
+            if (cause instanceof CancellationException) {
+                breaker.recordIgnored();
+                result.completeExceptionally(cause);
+                return;
+            }
+            if (!isServerFault(cause)) {
+                breaker.recordSuccess(); // the backend answered; this failure is ours
+                result.completeExceptionally(cause);
+                return;
+            }
+
+            breaker.recordFailure();
+            if (n < maxAttempts && !result.isDone()) {
+                long delay = backoffMillis(n);
+                System.err.println("Request failed (" + cause.getMessage() + "), retry " + n + "/"
+                    + (maxAttempts - 1) + " in " + delay + " ms");
+                CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, AppExecutors.io())
+                    .execute(() -> run(result, attempt, maxAttempts, n + 1));
+            } else {
+                result.completeExceptionally(cause);
+            }
+        });
+    }
+
+    /** "Full jitter": uniform in [0, min(max, base * 2^(attempt-1))], so retrying clients spread out. */
+    static long backoffMillis(int attempt) {
+        long ceiling = Math.min(MAX_DELAY_MILLIS, BASE_DELAY_MILLIS << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Any IOException from the exchange (refused or reset connections, timeouts, a body cut
+     * off mid-stream, an open breaker) and any 5xx. A 4xx or a body that arrived intact but
+     * doesn't decode (bad JSON, corrupt gzip, invalid UTF-8) would fail the same way again.
+     */
+    public static boolean isServerFault(Throwable t) {
+        if (t instanceof HttpStatusException) {
+            return ((HttpStatusException) t).getStatusCode() / 100 != 4;
+        }
+        return t instanceof IOException && !isDecodeError(t);
+    }
+
+    private static boolean isDecodeError(Throwable t) {
+        return t instanceof MalformedJsonException
+            || t instanceof ZipException             // corrupt gzip/deflate data
+            || t instanceof CharacterCodingException;
+    }
+}
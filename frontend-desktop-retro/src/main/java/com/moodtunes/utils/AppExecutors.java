@@ -0,0 +1,130 @@
+package com.moodtunes.utils;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The one place background work runs: blocking network and disk I/O (streaming response
+ * decoding, cache writes, retry/hedge timers, and HttpClient callbacks when that is safe,
+ * see {@link #httpClient()}) all go to {@link #io()}.
+ *
+ * On Java 21+ that is a virtual thread per task, so hundreds of concurrent prefetches cost
+ * a few KB each instead of a platform thread stack. On Java 17 it is a bounded pool of
+ * daemon platform threads ({@code app.io.threads}, default 2 x cores, at least 8).
+ * Force a mode with {@code -Dapp.executor=virtual|platform}.
+ *
+ * Threads are named {@code moodtunes-io-N} either way.
+ */
+public final class AppExecutors {
+
+    private static final String THREAD_PREFIX = "moodtunes-io-";
+
+    private static volatile ExecutorService io;
+    private static volatile boolean virtual;
+
+    private AppExecutors() {
+    }
+
+    /** Executor for blocking network and disk work. Never runs anything on the FX thread. */
+    public static ExecutorService io() {
+        ExecutorService e = io;
+        if (e == null) {
+            synchronized (AppExecutors.class) {
+                e = io;
+                if (e == null) io = e = create();
+            }
+        }
+        return e;
+    }
+
+    /**
+     * Executor for HttpClient's own tasks: {@link #io()} when it is virtual, otherwise
+     * {@code null} (the client's default pool). HttpClient must not share the bounded pool:
+     * pool threads blocked reading response bodies would wait on client tasks that then have
+     * no thread left to run on.
+     */
+    public static Executor httpClient() {
+        return usesVirtualThreads() ? io() : null;
+    }
+
+    /**
+     * Stops taking new work and waits up to {@code grace} for running tasks (cache writes, say)
+     * before interrupting them. Called on exit; a later {@link #io()} creates a new executor.
+     */
+    public static void shutdown(Duration grace) {
+        ExecutorService e;
+        synchronized (AppExecutors.class) {
+            e = io;
+            io = null;
+        }
+        if (e == null) return;
+        e.shutdown();
+        try {
+            if (!e.awaitTermination(grace.toMillis(), TimeUnit.MILLISECONDS)) e.shutdownNow();
+        } catch (InterruptedException ex) {
+            e.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** True if {@link #io()} hands out virtual threads. */
+    public static boolean usesVirtualThreads() {
+        io();
+        return virtual;
+    }
+
+    private static ExecutorService create() {
+        String mode = System.getProperty("app.executor", "virtual");
+        if (!mode.equals("platform")) {
+            ExecutorService v = newVirtualThreadExecutor();
+            if (v != null) {
+                virtual = true;
+                System.out.println("🧵 Background I/O on virtual threads");
+                return v;
+            }
+        }
+        int threads = Integer.getInteger("app.io.threads", Math.max(8, 2 * Runtime.getRuntime().availableProcessors()));
+        System.out.println("🧵 Background I/O on " + threads + " platform threads (Java "
+            + Runtime.version().feature() + ")");
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), platformThreadFactory());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * {@code Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, 0).factory())},
+     * looked up reflectively so the same source still compiles and runs on Java 17.
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        if (Runtime.version().feature() < 21) return null;
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, THREAD_PREFIX, 0L);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class
+                .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                .invoke(null, factory);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            System.err.println("Virtual threads unavailable, using platform threads: " + e);
+            return null;
+        }
+    }
+
+    private static ThreadFactory platformThreadFactory() {
+        AtomicInteger n = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, THREAD_PREFIX + n.getAndIncrement());
+            t.setDaemon(true); // never keeps the JVM alive after the window closes
+            return t;
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package com.moodtunes.utils;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Interning for strings that repeat a lot (artist names, common titles): equal strings come
+ * back as one shared instance, so a library that mentions the same artist on thousands of
+ * tracks keeps one copy of the name.
+ *
+ * Entries are held weakly, so a name nobody references any more is collected. The pool stops
+ * adding entries at {@code maxSize}; past that, strings are returned as they are.
+ */
+public final class StringPool {
+
+    private final int maxSize;
+    private final Map<String, WeakReference<String>> pool = new WeakHashMap<>(); // guarded by this
+
+    public StringPool(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /** The pooled instance equal to {@code s} (pooling {@code s} itself if there is none); null stays null. */
+    public synchronized String intern(String s) {
+        if (s == null) return null;
+        WeakReference<String> ref = pool.get(s);
+        String shared = ref != null ? ref.get() : null;
+        if (shared != null) return shared;
+        if (pool.size() < maxSize) pool.put(s, new WeakReference<>(s));
+        return s;
+    }
+
+    /** Strings currently pooled (collected ones may still be counted until the next access). */
+    public synchronized int size() {
+        return pool.size();
+    }
+}
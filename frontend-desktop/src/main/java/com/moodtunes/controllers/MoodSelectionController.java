@@ -17,6 +17,8 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
 import com.moodtunes.models.Mood;
+import com.moodtunes.network.ApiClient;
+import com.moodtunes.network.PlaylistService;
 import com.moodtunes.utils.SceneManager;
 
 import java.io.IOException;
@@ -60,9 +62,12 @@ public class MoodSelectionController implements Initializable {
     private Mood selectedMood;
     private VBox selectedCard;
 
+    private final PlaylistService playlistService = new PlaylistService(new ApiClient());
+
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         initializeMoods();
+        prefetchPlaylists();
 
         // Only create mood cards if using the old FXML with GridPane
         if (moodGrid != null) {
@@ -99,6 +104,13 @@ public class MoodSelectionController implements Initializable {
                 Color.web("#9370DB"), Color.web("#8A2BE2")));
     }
 
+    // Fetch every mood's playlist in one round trip while the user is choosing,
+    // so whichever card they click renders from memory
+    private void prefetchPlaylists() {
+        List<String> feelings = moods.stream().map(Mood::getName).toList();
+        playlistService.prefetchMoods(feelings, PlaylistController.playlistRequestOptions());
+    }
+
     //create mood cards
     private void createMoodCards() {
         int row = 0;
@@ -25,11 +25,12 @@ import com.moodtunes.models.Mood;
 import com.moodtunes.models.Song;
 import com.moodtunes.utils.SceneManager;
 import com.moodtunes.network.ApiClient;
+import com.moodtunes.network.NetworkStats;
+import com.moodtunes.network.PlaylistService;
+import com.moodtunes.network.RequestGeneration;
+import com.moodtunes.network.StreamUrlResolver;
 
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
-
-import com.google.gson.*;
+import com.google.gson.JsonObject;
 import javafx.application.Platform;
 import javafx.scene.media.Media;
 import javafx.scene.media.MediaPlayer;
@@ -42,9 +43,11 @@ import java.util.*;
 public class PlaylistController implements Initializable {
 
     // === config / state ===
-    private static final String BACKEND_BASE = "http://localhost:5000"; // change if needed
-    private final Gson gson = new Gson();
-    private final ApiClient api = new ApiClient();
+    private final ApiClient api = new ApiClient(); // backend(s) from api.base.urls / api.base.url (or MOODTUNES_API_URL[S])
+    private final PlaylistService playlistService = new PlaylistService(api);
+    private final StreamUrlResolver streamUrls = new StreamUrlResolver(api);
+    // Only the latest playlist load counts; older ones are aborted and their results dropped
+    private final RequestGeneration playlistLoads = new RequestGeneration();
 
     private MediaPlayer mediaPlayer;
 
@@ -68,10 +71,6 @@ public class PlaylistController implements Initializable {
     private double previousX;
     private double previousY;
 
-    // Default constructor (required for FXML)
-    public PlaylistController() {
-    }
-
     // === FXML ===
     @FXML private Label moodLabel;
     @FXML private ListView<Song> songListView;
@@ -93,23 +92,16 @@ public class PlaylistController implements Initializable {
     // If you’re using a controller factory, you may still keep this:
     public PlaylistController(Mood mood) {
         this.currentMood = mood;
-
-        // Set playlist title
-        if (playlistTitle != null && mood != null) {
-            playlistTitle.setText(mood.getName() + " Vibes ♪");
-        }
-
-        // Generate and populate playlist
-        if (mood != null) {
-            playlist = generatePlaylistForMood(mood);
-            if (songList != null) {
-                populateSongList();
-            }
-        }
     }
 
     public void setMood(Mood mood) { // call this after loading FXML if needed
         this.currentMood = mood;
+
+        // initialize() already ran (and started loading the default mood); switch to this one
+        if (moodLabel != null && mood != null) {
+            moodLabel.setText(mood.getName() + " Vibes 🎵");
+            loadPlaylistForMood(mood.getName());
+        }
     }
 
     // === lifecycle ===
@@ -140,73 +132,34 @@ public class PlaylistController implements Initializable {
     }
 
     // === networking ===
-    public void loadPlaylistForMood(String moodName) {
-        new Thread(() -> {
-            try {
-                String path = "/playlist";
-                JsonObject body = new JsonObject();
-                body.addProperty("feeling",
-                    moodName == null ? "calm" : moodName.trim().toLowerCase());
-
-                var resp = api.post(path, gson.toJson(body));
-                if (resp.statusCode() == 200) {
-                    String json = resp.body();
-                    JsonObject root = JsonParser.parseString(json).getAsJsonObject();
-                    JsonArray tracks = root.getAsJsonArray("tracks");
-
-                    List<Song> songsFromApi = new ArrayList<>();
-                    if (tracks != null) {
-                        for (JsonElement el : tracks) {
-                            JsonObject t = el.getAsJsonObject();
-
-                            String id = getString(t, "id",
-                                getString(t, "track_id", UUID.randomUUID().toString()));
-                            String title = getString(t, "title", "Untitled");
-                            String artist = getString(t, "artist",
-                                getFromObj(t, "user", "name",
-                                getFromObj(t, "user", "handle", "Unknown Artist")));
-
-                            String durationStr = "3:00";
-                            if (t.has("duration") && !t.get("duration").isJsonNull()) {
-                                try {
-                                    int secs = t.get("duration").getAsInt();
-                                    durationStr = String.format("%d:%02d", secs / 60, secs % 60);
-                                } catch (Exception ignore) {}
-                            } else if (t.has("durationText")) {
-                                durationStr = getString(t, "durationText", durationStr);
-                            }
-
-                            songsFromApi.add(new Song(id, title, artist, durationStr));
-                        }
-                    }
-
-                    Platform.runLater(() -> {
-                        playlist = songsFromApi;
-                        songListView.getItems().setAll(playlist);
-                    });
-                } else {
-                    System.err.println("API error: " + resp.statusCode() + " -> " + resp.body());
-                    fallbackToLocal();
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
-                fallbackToLocal();
-            }
-        }, "playlist-loader").start();
-    }
 
-    private static String getString(JsonObject o, String key, String def) {
-        return (o.has(key) && !o.get(key).isJsonNull()) ? o.get(key).getAsString() : def;
+    /** Everything in the /playlist body except "feeling"; MoodSelectionController prefetches with the same. */
+    static JsonObject playlistRequestOptions() {
+        return new JsonObject();
     }
 
-    private static String getFromObj(JsonObject o, String objKey, String innerKey, String def) {
-        if (o.has(objKey) && o.get(objKey).isJsonObject()) {
-            JsonObject inner = o.getAsJsonObject(objKey);
-            if (inner.has(innerKey) && !inner.get(innerKey).isJsonNull()) {
-                return inner.get(innerKey).getAsString();
-            }
-        }
-        return def;
+    public void loadPlaylistForMood(String moodName) {
+        JsonObject body = playlistRequestOptions();
+        body.addProperty("feeling",
+            moodName == null ? "calm" : moodName.trim().toLowerCase());
+
+        long requestedAt = System.nanoTime();
+        long token = playlistLoads.next(); // aborts the previous load, if any
+
+        // Non-blocking, and coalesced with any identical request already in flight
+        playlistLoads.track(token, playlistService.fetchPlaylist(body))
+            .whenCompleteAsync((songsFromApi, err) -> {
+                if (!playlistLoads.isCurrent(token)) return; // stale: user moved on
+                if (err != null) {
+                    ApiClient.rootCause(err).printStackTrace();
+                    fallbackToLocal();
+                    return;
+                }
+                playlist = songsFromApi;
+                songListView.getItems().setAll(playlist);
+                streamUrls.prefetchAround(playlist, 0);
+                NetworkStats.recordFirstPlaylist(requestedAt);
+            }, ApiClient.FX_THREAD);
     }
 
     private void fallbackToLocal() {
@@ -228,8 +181,9 @@ public class PlaylistController implements Initializable {
             mediaPlayer = null;
         }
 
-        String streamUrl = BACKEND_BASE + "/audius/stream/" +
-            URLEncoder.encode(song.getId(), StandardCharsets.UTF_8);
+        // Resolved Audius URL when we have one (skips the backend 302 hop), else the backend URL
+        String streamUrl = streamUrls.urlFor(song.getId());
+        streamUrls.prefetchAround(playlist, currentSongIndex);
 
         try {
             Media media = new Media(streamUrl);
@@ -247,8 +201,10 @@ public class PlaylistController implements Initializable {
             });
 
             mediaPlayer.setOnEndOfMedia(this::handleNext);
-            mediaPlayer.setOnError(() ->
-                System.err.println("Playback error: " + mediaPlayer.getError()));
+            mediaPlayer.setOnError(() -> {
+                System.err.println("Playback error: " + mediaPlayer.getError());
+                streamUrls.invalidate(song.getId()); // e.g. expired signed URL; re-resolve next time
+            });
 
             mediaPlayer.currentTimeProperty().addListener((obs, oldT, newT) -> {
                 try {
@@ -310,6 +266,7 @@ public class PlaylistController implements Initializable {
     @FXML
     private void handleBackButton() {
         try {
+            playlistLoads.invalidate();
             disposePlayer();
             SceneManager.switchScene("mood-selection");
         } catch (IOException e) {
@@ -324,6 +281,7 @@ public class PlaylistController implements Initializable {
 
     @FXML
     private void handleClose() {
+        playlistLoads.invalidate();
         Stage stage = (Stage) closeButton.getScene().getWindow();
         stage.close();
     }
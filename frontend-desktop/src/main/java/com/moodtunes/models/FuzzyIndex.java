@@ -0,0 +1,196 @@
+package com.moodtunes.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typo-tolerant word lookup over a growing list of folded strings (see {@link TrigramIndex#fold}).
+ *
+ * Strings are split into words; each distinct word goes into a BK-tree, a tree where every
+ * child edge is labelled with the child's edit distance to its parent. Finding the words within
+ * distance k of a query word only has to visit children whose edge is within k of the parent's
+ * own distance (triangle inequality), so a lookup touches a small part of the vocabulary.
+ * Each word keeps postings of the string ids containing it, ascending as in TrigramIndex.
+ *
+ * How many typos a query word may have depends on its length: none up to 3 characters, one up
+ * to 7, two beyond that. Not thread-safe.
+ */
+final class FuzzyIndex {
+
+    /** Returned for strings that don't match. */
+    static final int NO_MATCH = Integer.MAX_VALUE;
+
+    private static final int INITIAL_POSTINGS = 4;
+    private static final int DEADLINE_CHECK_EVERY = 256; // BK-tree nodes between clock reads
+
+    private final Map<String, Integer> wordIds = new HashMap<>();
+    private final List<String> words = new ArrayList<>();
+    private int[][] postings = new int[64][];
+    private int[] postingSizes = new int[64];
+
+    // BK-tree, one node per word id: first child, next sibling, edge distance to the parent
+    private int[] firstChild = new int[64];
+    private int[] nextSibling = new int[64];
+    private int[] edge = new int[64];
+
+    private int[] prevRow = new int[32]; // Levenshtein scratch rows
+    private int[] curRow = new int[32];
+    private boolean budgetExceeded;
+
+    /** Indexes the words of string {@code id}; ids must be added in increasing order. */
+    void add(int id, String folded) {
+        for (String word : words(folded)) {
+            int w = wordFor(word);
+            int n = postingSizes[w];
+            int[] list = postings[w];
+            if (n > 0 && list[n - 1] == id) continue; // word repeats within this string
+            if (n == list.length) postings[w] = list = Arrays.copyOf(list, n * 2);
+            list[n] = id;
+            postingSizes[w] = n + 1;
+        }
+    }
+
+    /**
+     * For each of the {@code count} strings, the edit distance from {@code queryWord} to the
+     * closest word in the string, or {@link #NO_MATCH} if none is close enough. Stops looking at
+     * {@code deadlineNanos} (a {@link System#nanoTime()} value) and returns what it found by
+     * then, setting {@link #budgetExceeded()}.
+     */
+    int[] distances(String queryWord, int count, long deadlineNanos) {
+        int[] best = new int[count];
+        Arrays.fill(best, NO_MATCH);
+        for (long hit : lookup(queryWord, maxTypos(queryWord), deadlineNanos)) {
+            int w = (int) (hit >>> 32);
+            int d = (int) hit;
+            for (int i = 0; i < postingSizes[w]; i++) {
+                int id = postings[w][i];
+                if (id < count && d < best[id]) best[id] = d;
+            }
+        }
+        return best;
+    }
+
+    /** Whether a lookup ran out of time since the last {@link #resetBudget()}. */
+    boolean budgetExceeded() {
+        return budgetExceeded;
+    }
+
+    void resetBudget() {
+        budgetExceeded = false;
+    }
+
+    static int maxTypos(String word) {
+        return word.length() <= 3 ? 0 : word.length() <= 7 ? 1 : 2;
+    }
+
+    /** Words within {@code k} of {@code query}, each packed as (word id << 32 | distance). */
+    private List<Long> lookup(String query, int k, long deadlineNanos) {
+        List<Long> hits = new ArrayList<>();
+        if (k == 0) {
+            Integer w = wordIds.get(query);
+            if (w != null) hits.add((long) w << 32);
+            return hits;
+        }
+        if (words.isEmpty()) return hits;
+        int[] stack = new int[16];
+        int top = 0;
+        stack[top++] = 0;
+        int visited = 0;
+        while (top > 0) {
+            if (++visited % DEADLINE_CHECK_EVERY == 0 && System.nanoTime() > deadlineNanos) {
+                budgetExceeded = true;
+                break;
+            }
+            int node = stack[--top];
+            int d = distance(query, words.get(node));
+            if (d <= k) hits.add((long) node << 32 | d);
+            for (int child = firstChild[node]; child != 0; child = nextSibling[child]) {
+                if (Math.abs(edge[child] - d) <= k) {
+                    if (top == stack.length) stack = Arrays.copyOf(stack, top * 2);
+                    stack[top++] = child;
+                }
+            }
+        }
+        return hits;
+    }
+
+    private int wordFor(String word) {
+        Integer known = wordIds.get(word);
+        if (known != null) return known;
+        int w = words.size();
+        words.add(word);
+        wordIds.put(word, w);
+        if (w == postings.length) {
+            int capacity = w * 2;
+            postings = Arrays.copyOf(postings, capacity);
+            postingSizes = Arrays.copyOf(postingSizes, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            edge = Arrays.copyOf(edge, capacity);
+        }
+        postings[w] = new int[INITIAL_POSTINGS];
+        if (w > 0) insert(w);
+        return w;
+    }
+
+    /** Hangs word {@code w} under the root (word 0) at its distance-labelled place. */
+    private void insert(int w) {
+        String word = words.get(w);
+        int node = 0;
+        while (true) {
+            int d = distance(word, words.get(node));
+            int child = firstChild[node];
+            while (child != 0 && edge[child] != d) child = nextSibling[child];
+            if (child == 0) {
+                edge[w] = d;
+                nextSibling[w] = firstChild[node];
+                firstChild[node] = w;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /** Levenshtein distance, two rows reused across calls. */
+    private int distance(String a, String b) {
+        int m = b.length();
+        if (prevRow.length <= m) {
+            prevRow = new int[m + 1];
+            curRow = new int[m + 1];
+        }
+        int[] prev = prevRow;
+        int[] cur = curRow;
+        for (int j = 0; j <= m; j++) prev[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            cur[0] = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                cur[j] = Math.min(Math.min(cur[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+            }
+            int[] t = prev;
+            prev = cur;
+            cur = t;
+        }
+        return prev[m];
+    }
+
+    /** Runs of letters and digits. */
+    static List<String> words(String folded) {
+        List<String> result = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean inWord = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (inWord && start < 0) {
+                start = i;
+            } else if (!inWord && start >= 0) {
+                result.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return result;
+    }
+}
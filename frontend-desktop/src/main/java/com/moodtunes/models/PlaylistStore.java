@@ -0,0 +1,684 @@
+package com.moodtunes.models;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Column-oriented storage for a playlist that may run to hundreds of thousands of tracks.
+ *
+ * Each track is a row: its id in a String column, its length in an int column, and its title,
+ * artist and album as int references into deduplicated string tables. Filtering and sorting never
+ * copy tracks; they produce a {@link View}, an immutable list of row numbers derived from
+ * another view. Song objects are built on demand (and then reused, so {@code ==} keeps
+ * working) for the rows the UI actually touches.
+ *
+ * Thread-safe: every method locks the store, so a search can run on a worker thread while the
+ * FX thread appends the next page. Views themselves are immutable.
+ */
+public final class PlaylistStore {
+
+    /** Sort keys the playlist screen offers. */
+    public enum SortKey { TITLE, ARTIST, ALBUM, DURATION }
+
+    /** One column of a multi-column sort. */
+    public record SortSpec(SortKey key, boolean ascending) {
+        public SortSpec reversed() {
+            return new SortSpec(key, !ascending);
+        }
+    }
+
+    /** Orders two rows of this store. */
+    @FunctionalInterface
+    public interface RowComparator {
+        int compare(int rowA, int rowB);
+    }
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int INSERTION_SORT_MAX = 32;
+    private static final long FUZZY_BUDGET_MILLIS = Long.getLong("app.search.fuzzy.budget.ms", 50);
+
+    private final StringTable titles = new StringTable();
+    private final StringTable artists = new StringTable();
+    private final StringTable albums = new StringTable();
+    private String[] ids = new String[INITIAL_CAPACITY];
+    private int[] titleRefs = new int[INITIAL_CAPACITY];
+    private int[] artistRefs = new int[INITIAL_CAPACITY];
+    private int[] albumRefs = new int[INITIAL_CAPACITY];
+    private int[] durations = new int[INITIAL_CAPACITY];
+    private Song[] songs = new Song[INITIAL_CAPACITY]; // built lazily by song(row)
+    private int size;
+
+    /** A store holding {@code songs}, in order. */
+    public static PlaylistStore of(List<Song> songs) {
+        PlaylistStore store = new PlaylistStore();
+        store.addAll(songs);
+        return store;
+    }
+
+    /** Adds one track; returns its row. */
+    public synchronized int add(Song song) {
+        if (size == ids.length) grow();
+        int row = size++;
+        ids[row] = song.getId();
+        titleRefs[row] = titles.ref(song.getTitle());
+        artistRefs[row] = artists.ref(song.getArtist());
+        albumRefs[row] = albums.ref(song.getAlbum());
+        durations[row] = song.getDurationSeconds();
+        return row;
+    }
+
+    /** Adds tracks in order; returns the row of the first one. */
+    public synchronized int addAll(List<Song> more) {
+        int first = size;
+        for (Song song : more) add(song);
+        return first;
+    }
+
+    public synchronized int size() { return size; }
+
+    public synchronized String id(int row) { return ids[check(row)]; }
+
+    public synchronized String title(int row) { return titles.get(titleRefs[check(row)]); }
+
+    public synchronized String artist(int row) { return artists.get(artistRefs[check(row)]); }
+
+    public synchronized String album(int row) { return albums.get(albumRefs[check(row)]); }
+
+    public synchronized int durationSeconds(int row) { return durations[check(row)]; }
+
+    /** The row as a Song; the same instance every time it is asked for. */
+    public synchronized Song song(int row) {
+        Song song = songs[check(row)];
+        if (song == null) {
+            song = new Song(ids[row], title(row), artists.get(artistRefs[row]), albums.get(albumRefs[row]), durations[row]);
+            songs[row] = song;
+        }
+        return song;
+    }
+
+    /** Every row added so far, in the order added. O(1): the view stores no row array. */
+    public synchronized View all() {
+        return new View(null, size, null);
+    }
+
+    /** Whether one row passes {@link View#filter} for {@code query}. */
+    public synchronized boolean matches(int row, String query) {
+        if (query == null || query.isEmpty()) return true;
+        String foldedQuery = TrigramIndex.fold(query);
+        return titles.folded(titleRefs[check(row)]).contains(foldedQuery)
+            || artists.folded(artistRefs[row]).contains(foldedQuery);
+    }
+
+    /**
+     * Compares rows by {@code key}. Title, artist and album compare precomputed ranks of the
+     * distinct strings in the user's locale collation (case-insensitive), so sorting never
+     * compares strings per track pair. The comparator reflects the strings present when it was
+     * made; get a new one after adding.
+     */
+    public synchronized RowComparator comparator(SortKey key, boolean ascending) {
+        RowComparator cmp = switch (key) {
+            case TITLE -> {
+                int[] rank = titles.ranks();
+                yield (a, b) -> Integer.compare(rank[titleRefs[a]], rank[titleRefs[b]]);
+            }
+            case ARTIST -> {
+                int[] rank = artists.ranks();
+                yield (a, b) -> Integer.compare(rank[artistRefs[a]], rank[artistRefs[b]]);
+            }
+            case ALBUM -> {
+                int[] rank = albums.ranks();
+                yield (a, b) -> Integer.compare(rank[albumRefs[a]], rank[albumRefs[b]]);
+            }
+            case DURATION -> (a, b) -> Integer.compare(durations[a], durations[b]);
+        };
+        return ascending ? cmp : (a, b) -> cmp.compare(b, a);
+    }
+
+    /** Compares rows by the first spec in {@code order}, then the next one on ties, and so on. */
+    public synchronized RowComparator comparator(List<SortSpec> order) {
+        RowComparator[] columns = new RowComparator[order.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = comparator(order.get(i).key(), order.get(i).ascending());
+        }
+        if (columns.length == 1) return columns[0];
+        return (a, b) -> {
+            for (RowComparator column : columns) {
+                int c = column.compare(a, b);
+                if (c != 0) return c;
+            }
+            return 0;
+        };
+    }
+
+    private static void mergeSort(int[] a, int from, int to, int[] tmp, RowComparator cmp) {
+        if (to - from <= INSERTION_SORT_MAX) {
+            for (int i = from + 1; i < to; i++) {
+                int v = a[i];
+                int j = i - 1;
+                while (j >= from && cmp.compare(a[j], v) > 0) {
+                    a[j + 1] = a[j];
+                    j--;
+                }
+                a[j + 1] = v;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(a, from, mid, tmp, cmp);
+        mergeSort(a, mid, to, tmp, cmp);
+        if (cmp.compare(a[mid - 1], a[mid]) <= 0) return; // already in order
+        System.arraycopy(a, from, tmp, from, to - from);
+        int i = from;
+        int j = mid;
+        for (int k = from; k < to; k++) {
+            if (j >= to || (i < mid && cmp.compare(tmp[i], tmp[j]) <= 0)) {
+                a[k] = tmp[i++];
+            } else {
+                a[k] = tmp[j++];
+            }
+        }
+    }
+
+    /**
+     * Turns rows stably sorted by some specs into the same rows sorted with the first spec's
+     * direction flipped, in O(n): reversing the array flips every column and the order of ties,
+     * so each run of rows equal on the first column is then reversed back.
+     */
+    private static void flipPrimary(int[] a, RowComparator primary) {
+        reverse(a, 0, a.length);
+        int start = 0;
+        for (int i = 1; i <= a.length; i++) {
+            if (i == a.length || primary.compare(a[i - 1], a[i]) != 0) {
+                reverse(a, start, i);
+                start = i;
+            }
+        }
+    }
+
+    private static void reverse(int[] a, int from, int to) {
+        for (int i = from, j = to - 1; i < j; i++, j--) {
+            int t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
+    }
+
+    private int check(int row) {
+        if (row < 0 || row >= size) throw new IndexOutOfBoundsException("row " + row + " of " + size);
+        return row;
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        titleRefs = Arrays.copyOf(titleRefs, capacity);
+        artistRefs = Arrays.copyOf(artistRefs, capacity);
+        albumRefs = Arrays.copyOf(albumRefs, capacity);
+        durations = Arrays.copyOf(durations, capacity);
+        songs = Arrays.copyOf(songs, capacity);
+    }
+
+    /**
+     * An ordered selection of rows, e.g. the current search result in the current sort.
+     * Reads as a {@code List<Song>} so playback code can index into it; the Songs come from
+     * {@link PlaylistStore#song}.
+     *
+     * Immutable, so handing one to the UI is free and it never changes underneath. Views made
+     * by {@link #filter} and {@link #sorted} are remembered by the view they came from (up to
+     * {@value #MAX_DERIVED} each): going back to an earlier search or sort, e.g. clearing the
+     * search box, returns the earlier view instead of recomputing it.
+     */
+    public final class View extends AbstractList<Song> implements RandomAccess {
+        private static final int MAX_DERIVED = 16;
+
+        private final int[] rows; // null = rows 0..size-1 in order
+        private final int size;
+        private final View parent;
+        private Map<String, View> derived; // created on first use; LRU
+        private boolean cutShort;          // set before the view is handed out
+
+        private View(int[] rows, int size, View parent) {
+            this.rows = rows;
+            this.size = size;
+            this.parent = parent;
+        }
+
+        @Override
+        public Song get(int index) {
+            return song(row(index));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /** The store row at {@code index}. */
+        public int row(int index) {
+            if (index < 0 || index >= size) throw new IndexOutOfBoundsException("index " + index + " of " + size);
+            return rows == null ? index : rows[index];
+        }
+
+        /** The view this one was filtered or sorted from; null for {@link PlaylistStore#all()}. */
+        public View parent() {
+            return parent;
+        }
+
+        /**
+         * Rows of this view whose title or artist contains {@code query}, ignoring case and
+         * accents, in this view's order. Matching titles and artists are looked up in each string
+         * table's trigram index, then one pass over the rows keeps those that use them. If a
+         * shorter query this one contains was already run here, only its result is scanned.
+         */
+        public View filter(String query) {
+            if (query == null || query.isEmpty()) return this;
+            String foldedQuery = TrigramIndex.fold(query);
+            synchronized (PlaylistStore.this) {
+                return derive("filter:" + foldedQuery, () -> {
+                    View source = narrowestFilterFor(foldedQuery);
+                    boolean[] titleHits = titles.matching(foldedQuery, titles.prefix());
+                    boolean[] artistHits = artists.matching(foldedQuery, artists.prefix());
+                    int[] hits = new int[Math.min(source.size, INITIAL_CAPACITY)];
+                    int n = 0;
+                    if (titleHits != null || artistHits != null) {
+                        for (int i = 0; i < source.size; i++) {
+                            int row = source.rows == null ? i : source.rows[i];
+                            if ((titleHits != null && titleHits[titleRefs[row]])
+                                    || (artistHits != null && artistHits[artistRefs[row]])) {
+                                if (n == hits.length) hits = Arrays.copyOf(hits, n * 2);
+                                hits[n++] = row;
+                            }
+                        }
+                    }
+                    return new View(Arrays.copyOf(hits, n), n, this);
+                });
+            }
+        }
+
+        /**
+         * Rows of this view whose title or artist matches {@code query} allowing typos (see
+         * {@link FuzzyIndex}), best first: by total edit distance, a field that contains the
+         * query outright counting as 0, then title matches before artist matches, then this
+         * view's order. Word lookups stop after {@code app.search.fuzzy.budget.ms} (default 50);
+         * a result cut short that way says so in {@link #isCutShort()} and is not remembered.
+         *
+         * The lookups only lock the string tables, not the store, so rows can be read and pages
+         * added while one runs.
+         */
+        public View fuzzyFilter(String query) {
+            if (query == null || query.isEmpty()) return this;
+            String foldedQuery = TrigramIndex.fold(query);
+            String op = "fuzzy:" + foldedQuery;
+            StringTable.Prefix titlePrefix;
+            StringTable.Prefix artistPrefix;
+            int[] titleRefsNow;
+            int[] artistRefsNow;
+            synchronized (PlaylistStore.this) {
+                View known = derived == null ? null : derived.get(op);
+                if (known != null) return known;
+                // Entries below these counts never change, so they can be read after unlocking
+                titlePrefix = titles.prefix();
+                artistPrefix = artists.prefix();
+                titleRefsNow = titleRefs;
+                artistRefsNow = artistRefs;
+            }
+
+            boolean[] cutShort = new boolean[1];
+            long deadline = System.nanoTime() + FUZZY_BUDGET_MILLIS * 1_000_000;
+            int[] titleDist = titles.fuzzyMatching(foldedQuery, titlePrefix, deadline, cutShort);
+            int[] artistDist = artists.fuzzyMatching(foldedQuery, artistPrefix, deadline, cutShort);
+
+            // rank = 2 x distance, +1 when only the artist matches that well
+            int[] rank = new int[size];
+            int maxRank = -1;
+            for (int i = 0; i < size; i++) {
+                int row = row(i);
+                int r = FuzzyIndex.NO_MATCH;
+                int d = titleDist == null ? FuzzyIndex.NO_MATCH : titleDist[titleRefsNow[row]];
+                if (d != FuzzyIndex.NO_MATCH) r = 2 * d;
+                d = artistDist == null ? FuzzyIndex.NO_MATCH : artistDist[artistRefsNow[row]];
+                if (d != FuzzyIndex.NO_MATCH) r = Math.min(r, 2 * d + 1);
+                rank[i] = r;
+                if (r != FuzzyIndex.NO_MATCH) maxRank = Math.max(maxRank, r);
+            }
+            // Counting sort by rank: stable, so equal ranks keep this view's order
+            int[] start = new int[maxRank + 2];
+            for (int r : rank) if (r != FuzzyIndex.NO_MATCH) start[r + 1]++;
+            for (int r = 0; r <= maxRank; r++) start[r + 1] += start[r];
+            int n = start[maxRank + 1];
+            int[] hits = new int[n];
+            for (int i = 0; i < size; i++) {
+                if (rank[i] != FuzzyIndex.NO_MATCH) hits[start[rank[i]]++] = row(i);
+            }
+            View view = new View(hits, n, this);
+            if (cutShort[0]) {
+                view.cutShort = true;
+                return view;
+            }
+            synchronized (PlaylistStore.this) {
+                return derive(op, () -> view); // the one already there if a concurrent search got in first
+            }
+        }
+
+        /** Whether this is a {@link #fuzzyFilter} result that ran out of time and may be missing matches. */
+        public boolean isCutShort() {
+            return cutShort;
+        }
+
+        /** This view reordered by {@code key}; stable, so equal rows keep this view's order. */
+        public View sorted(SortKey key, boolean ascending) {
+            return sorted(List.of(new SortSpec(key, ascending)));
+        }
+
+        /**
+         * This view ordered by the first spec, ties broken by the next, and so on; stable, so
+         * rows equal on every column keep this view's order. If the same sort with the first
+         * column's direction flipped was already made here, that result is turned around in
+         * O(n) instead of sorting again.
+         */
+        public View sorted(List<SortSpec> order) {
+            if (order.isEmpty()) return this;
+            List<SortSpec> specs = List.copyOf(order);
+            synchronized (PlaylistStore.this) {
+                return derive(sortOp(specs), () -> {
+                    List<SortSpec> flipped = new ArrayList<>(specs);
+                    flipped.set(0, specs.get(0).reversed());
+                    View opposite = derived.get(sortOp(flipped));
+                    int[] sorted;
+                    if (opposite != null) {
+                        sorted = opposite.rowArray();
+                        flipPrimary(sorted, comparator(specs.get(0).key(), true));
+                    } else {
+                        sorted = rowArray();
+                        mergeSort(sorted, 0, size, new int[size], comparator(specs));
+                    }
+                    return new View(sorted, size, this);
+                });
+            }
+        }
+
+        /**
+         * This view plus the store rows from {@code firstRow} on that match {@code query}: at the
+         * end, or, with a non-empty {@code order}, each at its place in that sort (after equal
+         * rows, so ties keep arrival order). {@code insertedAt} gets each new row's index in the
+         * result, in increasing order, so a UI list can insert just those items. Returns this view
+         * if nothing new matches.
+         */
+        public View withAdded(int firstRow, String query, List<SortSpec> order, IntConsumer insertedAt) {
+            synchronized (PlaylistStore.this) {
+                int[] added = new int[PlaylistStore.this.size - firstRow];
+                int n = 0;
+                for (int row = firstRow; row < PlaylistStore.this.size; row++) {
+                    if (matches(row, query)) added[n++] = row;
+                }
+                if (n == 0) return this;
+                RowComparator cmp = order.isEmpty() ? null : comparator(order);
+                if (cmp != null) mergeSort(added, 0, n, new int[n], cmp);
+
+                int[] merged = new int[size + n];
+                int i = 0;
+                int j = 0;
+                for (int k = 0; k < merged.length; k++) {
+                    boolean takeOld = j >= n || (i < size && (cmp == null || cmp.compare(row(i), added[j]) <= 0));
+                    if (takeOld) {
+                        merged[k] = row(i++);
+                    } else {
+                        merged[k] = added[j++];
+                        insertedAt.accept(k);
+                    }
+                }
+                return new View(merged, merged.length, null); // a new snapshot, not derived from anything remembered
+            }
+        }
+
+        /** Identity lookup that doesn't build a Song for every row it passes. */
+        @Override
+        public int indexOf(Object o) {
+            if (o == null) return -1;
+            synchronized (PlaylistStore.this) {
+                for (int i = 0; i < size; i++) {
+                    if (songs[row(i)] == o) return i;
+                }
+                return -1;
+            }
+        }
+
+        private View derive(String op, Supplier<View> compute) {
+            if (derived == null) {
+                derived = new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, View> eldest) {
+                        return size() > MAX_DERIVED;
+                    }
+                };
+            }
+            View view = derived.get(op);
+            if (view == null) {
+                view = compute.get();
+                derived.put(op, view);
+            }
+            return view;
+        }
+
+        private static String sortOp(List<SortSpec> specs) {
+            StringBuilder op = new StringBuilder("sort:");
+            for (SortSpec spec : specs) op.append(spec.key()).append(spec.ascending() ? '+' : '-');
+            return op.toString();
+        }
+
+        /** The smallest remembered filter result whose query {@code foldedQuery} contains, else this. */
+        private View narrowestFilterFor(String foldedQuery) {
+            View best = this;
+            for (Map.Entry<String, View> e : derived.entrySet()) {
+                String op = e.getKey();
+                if (op.startsWith("filter:") && foldedQuery.contains(op.substring("filter:".length()))
+                        && e.getValue().size < best.size) {
+                    best = e.getValue();
+                }
+            }
+            return best;
+        }
+
+        private int[] rowArray() {
+            if (rows != null) return Arrays.copyOf(rows, size);
+            int[] all = new int[size];
+            for (int i = 0; i < size; i++) all[i] = i;
+            return all;
+        }
+    }
+
+    /**
+     * Distinct strings, each stored once and referred to by index. Lookup is an open-addressing
+     * table of refs (an int per slot) rather than a HashMap, which would cost an entry object
+     * and a boxed Integer per distinct string.
+     *
+     * Sorting uses a {@link CollationKey} per distinct string, made the first time the table is
+     * ranked and kept, so strings added later (the next page) are merged into the existing order
+     * rather than the whole table being collated again.
+     */
+    private static final class StringTable {
+        private String[] values = new String[INITIAL_CAPACITY];
+        private int count;
+        private int[] slots = new int[INITIAL_CAPACITY * 2]; // ref + 1; 0 = empty
+        private final List<String> foldedValues = new ArrayList<>(); // TrigramIndex.fold of each value, filled lazily
+        private final TrigramIndex index = new TrigramIndex();       // over foldedValues
+        private final FuzzyIndex fuzzy = new FuzzyIndex();           // words of foldedValues
+        private final Collator collator = newCollator();
+        private CollationKey[] keys = new CollationKey[0]; // keys[ref], for refs < ordered
+        private int[] order = new int[0];                  // refs < ordered, in collation order
+        private int ordered;
+        private int[] ranks;
+
+        int ref(String s) {
+            if (s == null) s = "";
+            int mask = slots.length - 1;
+            int i = mix(s.hashCode()) & mask;
+            while (slots[i] != 0) {
+                int ref = slots[i] - 1;
+                if (values[ref].equals(s)) return ref;
+                i = (i + 1) & mask;
+            }
+            int ref = count++;
+            if (ref == values.length) values = Arrays.copyOf(values, ref * 2);
+            values[ref] = s;
+            slots[i] = ref + 1;
+            if (count * 2 > slots.length) rehash();
+            return ref;
+        }
+
+        private void rehash() {
+            slots = new int[slots.length * 2];
+            int mask = slots.length - 1;
+            for (int ref = 0; ref < count; ref++) {
+                int i = mix(values[ref].hashCode()) & mask;
+                while (slots[i] != 0) i = (i + 1) & mask;
+                slots[i] = ref + 1;
+            }
+        }
+
+        private static int mix(int h) {
+            return h ^ (h >>> 16);
+        }
+
+        String get(int ref) {
+            return values[ref];
+        }
+
+        /** The strings added so far; take it under the store lock. */
+        Prefix prefix() {
+            return new Prefix(values, count);
+        }
+
+        /** values[0..count): the table only ever appends, so these stay valid without the store lock. */
+        record Prefix(String[] values, int count) {}
+
+        // The search indexes are guarded by this table's own lock, not the store's, so a fuzzy
+        // lookup can run without holding up readers and writers of the store
+
+        synchronized String folded(int ref) {
+            indexUpTo(prefix());
+            return foldedValues.get(ref);
+        }
+
+        private void indexUpTo(Prefix prefix) {
+            while (foldedValues.size() < prefix.count()) {
+                int next = foldedValues.size();
+                String folded = TrigramIndex.fold(prefix.values()[next]);
+                foldedValues.add(folded);
+                index.add(next, folded);
+                fuzzy.add(next, folded);
+            }
+        }
+
+        /**
+         * hits[ref] = whether that string contains {@code foldedQuery}, for the strings in
+         * {@code prefix}; null if none does.
+         */
+        synchronized boolean[] matching(String foldedQuery, Prefix prefix) {
+            int n = prefix.count();
+            if (n == 0) return null;
+            indexUpTo(prefix); // index everything added since the last search
+            boolean[] hits = new boolean[n];
+            boolean any = false;
+            int[] candidates = index.candidates(foldedQuery);
+            if (candidates == null) {
+                // One or two characters: no trigram to look up, test every distinct string
+                for (int ref = 0; ref < n; ref++) {
+                    any |= hits[ref] = foldedValues.get(ref).contains(foldedQuery);
+                }
+            } else {
+                for (int ref : candidates) {
+                    if (ref >= n) break; // indexed by a search that saw more of the table
+                    any |= hits[ref] = foldedValues.get(ref).contains(foldedQuery);
+                }
+            }
+            return any ? hits : null;
+        }
+
+        /**
+         * dist[ref] = how far that string is from {@code foldedQuery}: 0 if it contains the whole
+         * query, else the sum over the query's words of 0 if the string contains the word (so a
+         * half-typed last word still counts) or the edit distance to its closest word there.
+         * {@link FuzzyIndex#NO_MATCH} if some word matches nothing; null if no string matches.
+         * Sets {@code cutShort[0]} if the word lookups ran past {@code deadlineNanos}.
+         */
+        synchronized int[] fuzzyMatching(String foldedQuery, Prefix prefix, long deadlineNanos, boolean[] cutShort) {
+            int count = prefix.count();
+            if (count == 0) return null;
+            fuzzy.resetBudget();
+            boolean[] exact = matching(foldedQuery, prefix); // also brings the indexes up to date
+            int[] total = null;
+            for (String word : FuzzyIndex.words(foldedQuery)) {
+                int[] dist = fuzzy.distances(word, count, deadlineNanos);
+                boolean[] contains = matching(word, prefix);
+                for (int ref = 0; ref < count; ref++) {
+                    if (contains != null && contains[ref]) dist[ref] = 0;
+                    if (total != null) {
+                        dist[ref] = total[ref] == FuzzyIndex.NO_MATCH || dist[ref] == FuzzyIndex.NO_MATCH
+                            ? FuzzyIndex.NO_MATCH : total[ref] + dist[ref];
+                    }
+                }
+                total = dist;
+            }
+            if (total == null && exact == null) return null;
+            if (total == null) {
+                total = new int[count];
+                Arrays.fill(total, FuzzyIndex.NO_MATCH);
+            }
+            boolean any = false;
+            for (int ref = 0; ref < count; ref++) {
+                if (exact != null && exact[ref]) total[ref] = 0;
+                any |= total[ref] != FuzzyIndex.NO_MATCH;
+            }
+            if (fuzzy.budgetExceeded()) cutShort[0] = true;
+            return any ? total : null;
+        }
+
+        /** rank[ref] = position of that string in collation order (strings that collate equal share a rank). */
+        int[] ranks() {
+            if (ranks != null && ordered == count) return ranks;
+            if (keys.length < count) keys = Arrays.copyOf(keys, Math.max(count, keys.length * 2));
+            int[] fresh = new int[count - ordered];
+            for (int i = 0; i < fresh.length; i++) {
+                int ref = ordered + i;
+                keys[ref] = collator.getCollationKey(values[ref]);
+                fresh[i] = ref;
+            }
+            RowComparator byKey = (a, b) -> keys[a].compareTo(keys[b]);
+            mergeSort(fresh, 0, fresh.length, new int[fresh.length], byKey);
+
+            int[] merged = new int[count];
+            int i = 0;
+            int j = 0;
+            for (int k = 0; k < count; k++) {
+                merged[k] = j >= fresh.length || (i < ordered && byKey.compare(order[i], fresh[j]) <= 0)
+                    ? order[i++] : fresh[j++];
+            }
+            int[] rank = new int[count];
+            for (int k = 0; k < count; k++) {
+                boolean tie = k > 0 && byKey.compare(merged[k], merged[k - 1]) == 0;
+                rank[merged[k]] = tie ? rank[merged[k - 1]] : k;
+            }
+            order = merged;
+            ordered = count;
+            ranks = rank;
+            return rank;
+        }
+
+        /** The user's locale, ignoring case but not accents, like the old compareToIgnoreCase did for ASCII. */
+        private static Collator newCollator() {
+            Collator collator = Collator.getInstance();
+            collator.setStrength(Collator.SECONDARY);
+            return collator;
+        }
+    }
+}
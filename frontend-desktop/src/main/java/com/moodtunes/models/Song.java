@@ -2,41 +2,100 @@ package com.moodtunes.models;
 
 /**
  * Represents a song with its metadata
+ *
+ * The duration is kept as whole seconds so sorting and seeking never parse text;
+ * the "m:ss" display string is only built when something asks for it.
  */
 public class Song {
-    
-    private String id;
-    private String title;
-    private String artist;
-    private String duration;
+
+    /** {@link #getDurationSeconds()} when the length is not known. */
+    public static final int UNKNOWN_DURATION = -1;
+
+    private final String id;
+    private final String title;
+    private final String artist;
+    private final String album; // "" when the track isn't on one
+    private final int durationSeconds;
+    private String durationText; // built on first getDuration(); racing threads build the same string
     private String url;
-    
-    public Song(String id, String title, String artist, String duration) {
+
+    public Song(String id, String title, String artist, int durationSeconds) {
+        this(id, title, artist, "", durationSeconds);
+    }
+
+    public Song(String id, String title, String artist, String album, int durationSeconds) {
         this.id = id;
         this.title = title;
         this.artist = artist;
-        this.duration = duration;
+        this.album = album != null ? album : "";
+        this.durationSeconds = durationSeconds;
         this.url = null;
     }
-    
+
+    /** @param duration display text such as "3:05"; parsed once here */
+    public Song(String id, String title, String artist, String duration) {
+        this(id, title, artist, duration, null);
+    }
+
     public Song(String id, String title, String artist, String duration, String url) {
         this.id = id;
         this.title = title;
         this.artist = artist;
-        this.duration = duration;
+        this.album = "";
+        this.durationSeconds = parseDuration(duration);
+        this.durationText = duration;
         this.url = url;
     }
-    
+
     // Getters
     public String getId() { return id; }
     public String getTitle() { return title; }
     public String getArtist() { return artist; }
-    public String getDuration() { return duration; }
+    public String getAlbum() { return album; }
     public String getUrl() { return url; }
-    
+
+    /** Length in seconds, or {@link #UNKNOWN_DURATION}. */
+    public int getDurationSeconds() { return durationSeconds; }
+
+    /** Length as "m:ss" (empty if unknown). */
+    public String getDuration() {
+        String text = durationText;
+        if (text == null) {
+            text = durationSeconds < 0 ? ""
+                : durationSeconds / 60 + ":" + (durationSeconds % 60 < 10 ? "0" : "") + durationSeconds % 60;
+            durationText = text;
+        }
+        return text;
+    }
+
     // Setters
     public void setUrl(String url) { this.url = url; }
-    
+
+    /**
+     * Seconds in a "m:ss" (or "h:mm:ss") string.
+     * @return {@link #UNKNOWN_DURATION} if it isn't one
+     */
+    public static int parseDuration(String text) {
+        if (text == null || text.isEmpty()) return UNKNOWN_DURATION;
+        int total = 0;
+        int part = 0;
+        boolean digits = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                part = part * 10 + (c - '0');
+                digits = true;
+            } else if (c == ':' && digits) {
+                total = total * 60 + part;
+                part = 0;
+                digits = false;
+            } else {
+                return UNKNOWN_DURATION;
+            }
+        }
+        return digits ? total * 60 + part : UNKNOWN_DURATION;
+    }
+
     @Override
     public String toString() {
         return title + " - " + artist;
@@ -0,0 +1,82 @@
+package com.moodtunes.network;
+
+/**
+ * Classic three-state circuit breaker for one backend.
+ *
+ * CLOSED: calls go through; {@code failureThreshold} consecutive server faults open it.
+ * OPEN: calls fail fast for {@code openMillis}, sparing a backend that is already struggling
+ * (e.g. answering 502 audius_unavailable while Audius discovery nodes are down).
+ * HALF_OPEN: a single probe call is let through; success closes, failure re-opens.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtMillis;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(String name, int failureThreshold, long openMillis) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    /** @return true if the caller may send a request now (and must then report its outcome) */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.currentTimeMillis() - openedAtMillis < openMillis) return false;
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                System.out.println("🔌 Circuit for " + name + " half-open, probing");
+                return true;
+            default: // HALF_OPEN
+                if (probeInFlight) return false;
+                probeInFlight = true;
+                return true;
+        }
+    }
+
+    /** The backend answered (even with a 4xx: it is reachable and not overloaded). */
+    public synchronized void recordSuccess() {
+        if (state != State.CLOSED) System.out.println("🔌 Circuit for " + name + " closed");
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    /** Connection failure, timeout or 5xx. */
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        probeInFlight = false;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAtMillis = System.currentTimeMillis();
+            System.err.println("🔌 Circuit for " + name + " opened after " + consecutiveFailures
+                + " failures; failing fast for " + openMillis / 1000 + "s");
+        }
+    }
+
+    /** The call ended without telling us anything about the backend (e.g. it was cancelled). */
+    public synchronized void recordIgnored() {
+        probeInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /** Time until an open breaker lets a probe through (0 when not open). */
+    public synchronized long retryAfterMillis() {
+        if (state != State.OPEN) return 0;
+        return Math.max(0, openMillis - (System.currentTimeMillis() - openedAtMillis));
+    }
+}
@@ -0,0 +1,119 @@
+package com.moodtunes.network;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Transparent gzip/deflate support for ApiClient.
+ *
+ * HttpClient neither advertises nor decodes Content-Encoding on its own, so requests send
+ * {@link #ACCEPT_ENCODING} and responses go through the helpers here. Decoding is streamed
+ * (the body is inflated as it is read) and every body reports its wire vs decoded size
+ * to {@link NetworkStats}.
+ */
+final class Compression {
+
+    static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private Compression() {
+    }
+
+    /** Drop-in for BodyHandlers.ofString(UTF_8) that decodes compressed bodies. */
+    static HttpResponse.BodyHandler<String> ofString(String label) {
+        return info -> {
+            String encoding = encoding(info.headers());
+            return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(), bytes -> {
+                // Whole body is already in memory here, so inflating can't block on the network
+                try (InputStream in = decoding(label, encoding, new ByteArrayInputStream(bytes))) {
+                    return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        };
+    }
+
+    /**
+     * Wraps a raw response stream so reads return decoded bytes. Call this off the HttpClient's
+     * I/O threads: the gzip header is read (and may block) right away.
+     */
+    static InputStream decoding(String label, HttpHeaders headers, InputStream raw) throws IOException {
+        return decoding(label, encoding(headers), raw);
+    }
+
+    private static InputStream decoding(String label, String encoding, InputStream raw) throws IOException {
+        CountingInputStream wire = new CountingInputStream(raw);
+        InputStream inflated;
+        try {
+            inflated = switch (encoding) {
+                case "gzip", "x-gzip" -> new GZIPInputStream(wire);
+                case "deflate" -> new InflaterInputStream(wire);
+                default -> wire;
+            };
+        } catch (IOException e) {
+            wire.close();
+            throw e;
+        }
+        if (inflated == wire) {
+            wire.onClose = () -> NetworkStats.recordBody(label, "identity", wire.count, wire.count);
+            return wire;
+        }
+        CountingInputStream decoded = new CountingInputStream(inflated);
+        decoded.onClose = () -> NetworkStats.recordBody(label, encoding, wire.count, decoded.count);
+        return decoded;
+    }
+
+    private static String encoding(HttpHeaders headers) {
+        return headers.firstValue("Content-Encoding").orElse("identity").trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Counts bytes read through it and reports once on close. */
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+        Runnable onClose;
+        private boolean closed;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            int n = super.read(buf, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        @Override
+        public void close() throws IOException {
+            super.close();
+            if (!closed) {
+                closed = true;
+                if (onClose != null) onClose.run();
+            }
+        }
+    }
+}
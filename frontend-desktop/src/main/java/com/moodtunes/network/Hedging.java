@@ -0,0 +1,136 @@
+package com.moodtunes.network;
+
+import com.moodtunes.utils.AppExecutors;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Opt-in request hedging to cut tail latency.
+ *
+ * If an idempotent call hasn't answered within the p-th percentile of recently observed
+ * latency for the same endpoint, an identical second request is sent; the first to succeed
+ * wins and the other is cancelled. A token bucket caps the extra load: each call earns
+ * {@code budget%} of a token, each hedge spends one.
+ *
+ * Off by default. Enable with {@code -Dapi.hedge.enabled=true}; tune with
+ * {@code api.hedge.percentile} (default 95) and {@code api.hedge.budget.percent} (default 10).
+ */
+public class Hedging {
+
+    private static final boolean ENABLED = Boolean.getBoolean("api.hedge.enabled");
+    private static final double PERCENTILE = Double.parseDouble(System.getProperty("api.hedge.percentile", "95"));
+    private static final double BUDGET_PERCENT = Double.parseDouble(System.getProperty("api.hedge.budget.percent", "10"));
+
+    private static final int WINDOW = 128;            // recent samples kept per endpoint
+    private static final int MIN_SAMPLES = 20;        // don't hedge on a guess
+    private static final long MIN_DELAY_MILLIS = 50;  // hedging faster than this only doubles load
+    private static final double MAX_TOKENS = 10;      // burst allowance
+
+    private static final Map<String, Hedging> backends = new ConcurrentHashMap<>();
+
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+    private double tokens;      // guarded by this
+    private long calls;         // guarded by this
+    private long hedges;        // guarded by this
+
+    public static Hedging forBackend(String baseUrl) {
+        return backends.computeIfAbsent(baseUrl, url -> new Hedging());
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Runs {@code attempt}, possibly twice. {@code endpoint} (e.g. "POST /playlist") selects the
+     * latency history. Fails only once every attempt that was started has failed.
+     * Cancelling the returned future cancels every attempt still in flight.
+     */
+    public <T> CompletableFuture<T> execute(String endpoint, Supplier<CompletableFuture<T>> attempt) {
+        LatencyWindow window = latencies.computeIfAbsent(endpoint, k -> new LatencyWindow());
+        if (!ENABLED) return timed(window, attempt.get());
+
+        earnToken();
+        long hedgeAfter = window.percentile(PERCENTILE);
+        CompletableFuture<T> primary = timed(window, attempt.get());
+        if (hedgeAfter < 0) return primary;
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        race(primary, result, pending);
+        result.whenComplete((v, err) -> primary.cancel(true));
+
+        CompletableFuture.delayedExecutor(Math.max(hedgeAfter, MIN_DELAY_MILLIS), TimeUnit.MILLISECONDS, AppExecutors.io()).execute(() -> {
+            if (result.isDone() || !trySpendToken()) return;
+            System.out.println("⏱️ Hedging " + endpoint + " after " + hedgeAfter + " ms (p" + (int) PERCENTILE + ")");
+            pending.incrementAndGet();
+            CompletableFuture<T> hedge = timed(window, attempt.get());
+            race(hedge, result, pending);
+            result.whenComplete((v, err) -> hedge.cancel(true));
+        });
+        return result;
+    }
+
+    private static <T> void race(CompletableFuture<T> attempt, CompletableFuture<T> result, AtomicInteger pending) {
+        attempt.whenComplete((value, err) -> {
+            if (err == null) {
+                result.complete(value);
+            } else if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(err);
+            }
+        });
+    }
+
+    private static <T> CompletableFuture<T> timed(LatencyWindow window, CompletableFuture<T> attempt) {
+        long start = System.nanoTime();
+        attempt.whenComplete((value, err) -> {
+            if (err == null) window.add((System.nanoTime() - start) / 1_000_000);
+        });
+        return attempt;
+    }
+
+    private synchronized void earnToken() {
+        calls++;
+        tokens = Math.min(MAX_TOKENS, tokens + BUDGET_PERCENT / 100.0);
+    }
+
+    private synchronized boolean trySpendToken() {
+        if (tokens < 1) return false;
+        tokens -= 1;
+        hedges++;
+        return true;
+    }
+
+    /** Hedges sent / calls made, for diagnostics. */
+    public synchronized String stats() {
+        return hedges + " hedges / " + calls + " calls";
+    }
+
+    /** Ring buffer of the most recent latencies (ms) for one endpoint. */
+    static final class LatencyWindow {
+        private final long[] samples = new long[WINDOW];
+        private int next;
+        private int count;
+
+        synchronized void add(long millis) {
+            samples[next] = millis;
+            next = (next + 1) % WINDOW;
+            if (count < WINDOW) count++;
+        }
+
+        /** @return the p-th percentile in ms, or -1 until enough samples were seen */
+        synchronized long percentile(double p) {
+            if (count < MIN_SAMPLES) return -1;
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int idx = (int) Math.ceil(p / 100.0 * count) - 1;
+            return sorted[Math.max(0, Math.min(count - 1, idx))];
+        }
+    }
+}
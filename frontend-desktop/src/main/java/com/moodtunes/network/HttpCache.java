@@ -0,0 +1,346 @@
+package com.moodtunes.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Private HTTP cache for ApiClient: memory (parsed values) backed by disk (raw bodies).
+ *
+ * Honors Cache-Control (no-store, no-cache, max-age) and revalidates stale entries with
+ * If-None-Match / If-Modified-Since; on a 304 the already-parsed value is reused without
+ * touching the body again. Both tiers are size-bounded and evict least-recently-used first.
+ *
+ * Limits are configurable with system properties:
+ * {@code http.cache.memory.bytes} (default 4 MB), {@code http.cache.disk.bytes}
+ * (default 32 MB, 0 disables disk) and {@code http.cache.dir}.
+ */
+public class HttpCache {
+
+    private static final long DEFAULT_MEMORY_BYTES = 4L * 1024 * 1024;
+    private static final long DEFAULT_DISK_BYTES = 32L * 1024 * 1024;
+
+    private static volatile HttpCache defaultCache;
+
+    /** One cached response. Validators/expiry are mutable because a 304 refreshes them. */
+    public static final class Entry {
+        final String key;
+        volatile String etag;
+        volatile String lastModified;
+        volatile long expiresAtMillis;
+        volatile boolean noCache;
+        final long size;
+        private Object value;  // guarded by this; null until decoded (entries read back from disk)
+
+        Entry(String key, long size) {
+            this.key = key;
+            this.size = size;
+        }
+
+        /** Fresh entries may be served without contacting the server. */
+        public boolean isFresh() {
+            return !noCache && System.currentTimeMillis() < expiresAtMillis;
+        }
+
+        boolean hasValidators() {
+            return etag != null || lastModified != null;
+        }
+    }
+
+    private final long maxMemoryBytes;
+    private final long maxDiskBytes;
+    private final Path dir;
+
+    // Access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes;
+
+    public HttpCache(long maxMemoryBytes, long maxDiskBytes, Path dir) {
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.maxDiskBytes = maxDiskBytes;
+        this.dir = dir;
+    }
+
+    public static HttpCache getDefault() {
+        HttpCache c = defaultCache;
+        if (c == null) {
+            synchronized (HttpCache.class) {
+                c = defaultCache;
+                if (c == null) {
+                    Path dir = Paths.get(System.getProperty("http.cache.dir",
+                        Paths.get(System.getProperty("user.home"), ".moodtunes", "http-cache").toString()));
+                    defaultCache = c = new HttpCache(
+                        Long.getLong("http.cache.memory.bytes", DEFAULT_MEMORY_BYTES),
+                        Long.getLong("http.cache.disk.bytes", DEFAULT_DISK_BYTES),
+                        dir);
+                }
+            }
+        }
+        return c;
+    }
+
+    // === lookup ===
+
+    /** Returns the entry for {@code key} from memory, falling back to disk; null if none. */
+    public Entry lookup(String key) {
+        synchronized (this) {
+            Entry e = memory.get(key);
+            if (e != null) return e;
+        }
+        return readMeta(key);
+    }
+
+    /**
+     * Returns the parsed value of {@code entry}, decoding the stored body only if this entry
+     * was read back from disk and hasn't been decoded yet.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T valueOf(Entry entry, ApiClient.BodyDecoder<T> decoder) throws IOException {
+        synchronized (entry) {
+            if (entry.value == null) {
+                try (InputStream in = Files.newInputStream(bodyFile(entry.key))) {
+                    entry.value = decoder.decode(in);
+                }
+                remember(entry);
+            }
+            return (T) entry.value;
+        }
+    }
+
+    /** Adds If-None-Match / If-Modified-Since for a stale entry. */
+    public void addValidators(Entry entry, HttpRequest.Builder request) {
+        if (entry.etag != null) request.header("If-None-Match", entry.etag);
+        if (entry.lastModified != null) request.header("If-Modified-Since", entry.lastModified);
+    }
+
+    // === store ===
+
+    /** True unless the response says it must not be stored. */
+    public static boolean isStorable(HttpHeaders headers) {
+        return !cacheControl(headers).contains("no-store");
+    }
+
+    /**
+     * Stores a 2xx response. Entries without validators or max-age are useless to us
+     * (we could neither serve nor revalidate them) and are skipped.
+     */
+    public void store(String key, HttpHeaders headers, byte[] body, Object value) {
+        Entry entry = new Entry(key, body.length);
+        applyHeaders(entry, headers);
+        if (!entry.hasValidators() && !entry.isFresh()) return;
+        entry.value = value;
+        remember(entry);
+        writeToDisk(entry, body);
+    }
+
+    /** A 304 arrived: refresh expiry and validators from its headers. */
+    public void revalidated(Entry entry, HttpHeaders headers) {
+        applyHeaders(entry, headers);
+        remember(entry);
+        if (maxDiskBytes > 0) {
+            try {
+                writeMeta(entry);
+            } catch (IOException e) {
+                System.err.println("HTTP cache: failed to update " + entry.key + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static void applyHeaders(Entry entry, HttpHeaders headers) {
+        String cc = cacheControl(headers);
+        entry.noCache = cc.contains("no-cache");
+        long maxAge = maxAgeSeconds(cc);
+        entry.expiresAtMillis = maxAge > 0 ? System.currentTimeMillis() + maxAge * 1000 : 0;
+        headers.firstValue("ETag").ifPresent(v -> entry.etag = v);
+        headers.firstValue("Last-Modified").ifPresent(v -> entry.lastModified = v);
+    }
+
+    private static String cacheControl(HttpHeaders headers) {
+        return String.join(",", headers.allValues("Cache-Control")).toLowerCase(Locale.ROOT);
+    }
+
+    private static long maxAgeSeconds(String cacheControl) {
+        for (String directive : cacheControl.split(",")) {
+            String d = directive.trim();
+            if (d.startsWith("max-age=")) {
+                try {
+                    return Long.parseLong(d.substring("max-age=".length()).replace("\"", ""));
+                } catch (NumberFormatException ignored) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+
+    // === memory tier ===
+
+    private synchronized void remember(Entry entry) {
+        Entry previous = memory.put(entry.key, entry);
+        if (previous != null && previous != entry) memoryBytes -= previous.size;
+        if (previous != entry) memoryBytes += entry.size;
+
+        Iterator<Map.Entry<String, Entry>> it = memory.entrySet().iterator();
+        while (memoryBytes > maxMemoryBytes && it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            if (eldest == entry) break;  // never evict what we just stored
+            it.remove();
+            memoryBytes -= eldest.size;
+        }
+    }
+
+    // === disk tier ===
+    // One <sha256>.meta (properties) + <sha256>.body (decoded response bytes) per entry.
+
+    private Entry readMeta(String key) {
+        if (maxDiskBytes <= 0) return null;
+        Path meta = metaFile(key);
+        if (!Files.exists(meta)) return null;
+
+        Properties p = new Properties();
+        try (Reader in = Files.newBufferedReader(meta, StandardCharsets.UTF_8)) {
+            p.load(in);
+            if (!key.equals(p.getProperty("key")) || !Files.exists(bodyFile(key))) return null;
+
+            Entry e = new Entry(key, Long.parseLong(p.getProperty("size", "0")));
+            e.etag = p.getProperty("etag");
+            e.lastModified = p.getProperty("lastModified");
+            e.expiresAtMillis = Long.parseLong(p.getProperty("expiresAt", "0"));
+            e.noCache = Boolean.parseBoolean(p.getProperty("noCache"));
+            Files.setLastModifiedTime(meta, FileTime.fromMillis(System.currentTimeMillis())); // LRU touch
+            return e;
+        } catch (IOException | RuntimeException ex) {
+            System.err.println("HTTP cache: ignoring unreadable entry " + meta + ": " + ex.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToDisk(Entry entry, byte[] body) {
+        if (maxDiskBytes <= 0 || body.length > maxDiskBytes) return;
+        try {
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, "body", ".tmp");
+            Files.write(tmp, body);
+            Files.move(tmp, bodyFile(entry.key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            writeMeta(entry);
+            trimDisk();
+        } catch (IOException e) {
+            System.err.println("HTTP cache: failed to persist " + entry.key + ": " + e.getMessage());
+        }
+    }
+
+    private void writeMeta(Entry entry) throws IOException {
+        Properties p = new Properties();
+        p.setProperty("key", entry.key);
+        p.setProperty("size", Long.toString(entry.size));
+        p.setProperty("expiresAt", Long.toString(entry.expiresAtMillis));
+        p.setProperty("noCache", Boolean.toString(entry.noCache));
+        if (entry.etag != null) p.setProperty("etag", entry.etag);
+        if (entry.lastModified != null) p.setProperty("lastModified", entry.lastModified);
+
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, "meta", ".tmp");
+        try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            p.store(out, null);
+        }
+        Files.move(tmp, metaFile(entry.key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Deletes least recently used entries (by .meta mtime) until the directory fits the limit. */
+    private synchronized void trimDisk() throws IOException {
+        List<Path> metas = new ArrayList<>();
+        long total = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path f : files) {
+                total += Files.size(f);
+                if (f.getFileName().toString().endsWith(".meta")) metas.add(f);
+            }
+        }
+        if (total <= maxDiskBytes) return;
+
+        metas.sort(Comparator.comparing(HttpCache::mtime));
+        for (Path meta : metas) {
+            if (total <= maxDiskBytes) break;
+            String name = meta.getFileName().toString();
+            Path body = meta.resolveSibling(name.substring(0, name.length() - ".meta".length()) + ".body");
+            total -= sizeOrZero(meta) + sizeOrZero(body);
+            Files.deleteIfExists(meta);
+            Files.deleteIfExists(body);
+        }
+    }
+
+    private static FileTime mtime(Path p) {
+        try {
+            return Files.getLastModifiedTime(p);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static long sizeOrZero(Path p) {
+        try {
+            return Files.exists(p) ? Files.size(p) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private Path metaFile(String key) {
+        return dir.resolve(hash(key) + ".meta");
+    }
+
+    private Path bodyFile(String key) {
+        return dir.resolve(hash(key) + ".body");
+    }
+
+    private static String hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /** Wraps {@code in} so every byte read is also copied into {@code sink}. */
+    static InputStream tee(InputStream in, ByteArrayOutputStream sink) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) sink.write(b);
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buf, int off, int len) throws IOException {
+                int n = super.read(buf, off, len);
+                if (n > 0) sink.write(buf, off, n);
+                return n;
+            }
+        };
+    }
+}
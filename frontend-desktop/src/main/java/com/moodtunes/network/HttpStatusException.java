@@ -0,0 +1,23 @@
+package com.moodtunes.network;
+
+import java.io.IOException;
+
+/**
+ * Thrown (or used to complete a future exceptionally) when the backend answers with a non-2xx status.
+ */
+public class HttpStatusException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+    private final String body;
+
+    public HttpStatusException(String message, int statusCode, String body) {
+        super(message);
+        this.statusCode = statusCode;
+        this.body = body;
+    }
+
+    public int getStatusCode() { return statusCode; }
+    public String getBody() { return body; }
+}
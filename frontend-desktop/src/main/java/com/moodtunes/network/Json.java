@@ -0,0 +1,19 @@
+package com.moodtunes.network;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.moodtunes.models.Song;
+
+/**
+ * The one Gson instance the app uses, with its hand-written adapters registered
+ * (so a Song never goes through reflection).
+ */
+public final class Json {
+
+    public static final Gson GSON = new GsonBuilder()
+        .registerTypeAdapter(Song.class, TrackAdapter.INSTANCE)
+        .create();
+
+    private Json() {
+    }
+}
@@ -0,0 +1,58 @@
+package com.moodtunes.network;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lightweight client-side network timings, printed to stdout.
+ */
+public final class NetworkStats {
+
+    private static volatile long appStartNanos = System.nanoTime();
+    private static final AtomicBoolean firstPlaylistRecorded = new AtomicBoolean(false);
+    private static final AtomicLong wireBytes = new AtomicLong();
+    private static final AtomicLong decodedBytes = new AtomicLong();
+
+    private NetworkStats() {
+    }
+
+    /** Call from Main.start so time-to-first-playlist is measured from launch. */
+    public static void markAppStart() {
+        appStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Call when the first playlist from the backend has been rendered; only the first call counts.
+     * @param requestedAtNanos System.nanoTime() taken when the playlist request was issued
+     */
+    public static void recordFirstPlaylist(long requestedAtNanos) {
+        if (firstPlaylistRecorded.compareAndSet(false, true)) {
+            long now = System.nanoTime();
+            System.out.println("⏱️ time-to-first-playlist: " + (now - requestedAtNanos) / 1_000_000
+                + " ms from click, " + (now - appStartNanos) / 1_000_000 + " ms from launch (warm-up "
+                + (isWarmUpEnabled() ? "on" : "off") + ")");
+        }
+    }
+
+    /**
+     * Records one response body: bytes as received on the wire vs bytes after
+     * Content-Encoding was undone (equal when the body wasn't compressed).
+     */
+    public static void recordBody(String label, String encoding, long wire, long decoded) {
+        long totalWire = wireBytes.addAndGet(wire);
+        long totalDecoded = decodedBytes.addAndGet(decoded);
+        System.out.println("📦 " + label + ": " + wire + " B on the wire, " + decoded + " B decoded ("
+            + encoding + "); session total " + totalWire + " / " + totalDecoded + " B");
+    }
+
+    /** Total response-body bytes received on the wire so far. */
+    public static long getWireBytes() { return wireBytes.get(); }
+
+    /** Total response-body bytes after decompression so far. */
+    public static long getDecodedBytes() { return decodedBytes.get(); }
+
+    /** Warm-up can be switched off with -Dapi.warmup=false to compare before/after. */
+    public static boolean isWarmUpEnabled() {
+        return !"false".equalsIgnoreCase(System.getProperty("api.warmup"));
+    }
+}
@@ -0,0 +1,18 @@
+package com.moodtunes.network;
+
+import com.moodtunes.models.Song;
+
+import java.util.List;
+
+/**
+ * One page of a {@code /playlist} response.
+ *
+ * @param songs      the tracks on this page (unmodifiable)
+ * @param nextCursor what to send as {@code "cursor"} for the next page; null on the last one
+ */
+public record PlaylistPage(List<Song> songs, String nextCursor) {
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
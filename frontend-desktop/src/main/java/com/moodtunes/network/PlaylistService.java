@@ -0,0 +1,202 @@
+package com.moodtunes.network;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.moodtunes.models.Song;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Fetches mood playlists from the backend ({@code POST /playlist}) and turns them into Songs.
+ *
+ * Identical requests that overlap in time (double-clicking a mood card, back/forward
+ * rebuilding the playlist screen) share one HTTP exchange and one parsed list.
+ * Cancelling the returned future detaches the caller; once no caller is left the
+ * exchange is aborted.
+ *
+ * {@link #prefetchMoods} loads several moods in one {@code POST /playlists} exchange (or, on
+ * a backend without it, a few parallel single requests) and keeps the lists in memory, so a
+ * later {@link #fetchPlaylist} for any of those moods completes without another request.
+ *
+ * Long playlists come in pages: {@link #fetchPage} returns the first one with a cursor,
+ * {@link #nextPage} follows it. {@link #fetchPlaylist} is just the first page's tracks.
+ */
+public class PlaylistService {
+
+    private static final String PLAYLIST_PATH = "/playlist";
+    private static final String BATCH_PATH = "/playlists";
+    private static final int MAX_PARALLEL_FALLBACK = 3;
+    private static final long PREFETCH_TTL_MILLIS = 60_000; // the backend's max-age for playlists
+
+    private record Prefetched(CompletableFuture<PlaylistPage> page, long fetchedAtMillis) {
+        boolean usable() {
+            return !page.isCompletedExceptionally()
+                && System.currentTimeMillis() - fetchedAtMillis < PREFETCH_TTL_MILLIS;
+        }
+    }
+
+    private record Pending(String feeling, String json, String key, Prefetched entry) {
+    }
+
+    // Shared across instances: every controller builds its own service
+    private static final SingleFlight<String, PlaylistPage> inFlight = new SingleFlight<>();
+    private static final Map<String, Prefetched> prefetched = new ConcurrentHashMap<>();
+    private static volatile boolean batchUnsupported;
+
+    private final ApiClient api;
+    private final Gson gson = Json.GSON;
+
+    public PlaylistService(ApiClient api) {
+        this.api = api;
+    }
+
+    /**
+     * @param requestBody JSON body for /playlist, at least {@code {"feeling": "..."}}
+     * @return the tracks as an unmodifiable list; completes exceptionally with
+     *         {@link HttpStatusException} on a non-2xx answer
+     */
+    public CompletableFuture<List<Song>> fetchPlaylist(JsonObject requestBody) {
+        CompletableFuture<PlaylistPage> page = fetchPage(requestBody);
+        return ApiClient.abortOnCancel(page.thenApply(PlaylistPage::songs), page);
+    }
+
+    /**
+     * First page of a playlist. The backend decides the page size unless the body has a
+     * "limit".
+     *
+     * @param requestBody JSON body for /playlist, at least {@code {"feeling": "..."}}
+     */
+    public CompletableFuture<PlaylistPage> fetchPage(JsonObject requestBody) {
+        String json = gson.toJson(requestBody);
+        Prefetched p = prefetched.get(key(json));
+        if (p != null && p.usable()) {
+            // Already loaded (or loading) by prefetchMoods; copy() so cancelling this caller
+            // doesn't cancel the shared entry, and fall back to a normal fetch if it fails
+            return p.page().copy().exceptionallyCompose(err -> fetchFromBackend(json));
+        }
+        return fetchFromBackend(json);
+    }
+
+    /**
+     * The page after {@code previous}.
+     *
+     * @param requestBody the same body the first page was fetched with
+     * @throws IllegalArgumentException if {@code previous} was the last page
+     */
+    public CompletableFuture<PlaylistPage> nextPage(JsonObject requestBody, PlaylistPage previous) {
+        if (!previous.hasMore()) {
+            throw new IllegalArgumentException("No page after the last one");
+        }
+        JsonObject body = requestBody.deepCopy();
+        body.addProperty("cursor", previous.nextCursor());
+        return fetchFromBackend(gson.toJson(body));
+    }
+
+    private CompletableFuture<PlaylistPage> fetchFromBackend(String json) {
+        // Cancelled before the body arrives -> exchange aborted and decoding never runs.
+        // Goes through the HTTP cache, so revisiting a mood is free while the list is fresh
+        // and costs only a 304 once it isn't.
+        return inFlight.execute(key(json), () -> api.postJsonCachedAsync(PLAYLIST_PATH, json, PlaylistDecoder::decodePage));
+    }
+
+    /**
+     * Loads the playlists of several moods in the background and keeps them in memory.
+     * Moods that are already loaded (or loading) are skipped.
+     *
+     * @param feelings mood names (normalized the same way the controllers do: trimmed, lower case)
+     * @param options  the rest of the /playlist body, i.e. what {@link #fetchPlaylist} will be
+     *                 given minus "feeling"; prefetched lists only match identical requests
+     */
+    public void prefetchMoods(List<String> feelings, JsonObject options) {
+        List<Pending> pending = new ArrayList<>();
+        for (String name : feelings) {
+            String feeling = name.trim().toLowerCase(Locale.ROOT);
+            JsonObject body = options.deepCopy();
+            body.addProperty("feeling", feeling);
+            String json = gson.toJson(body);
+            String key = key(json);
+
+            Prefetched entry = new Prefetched(new CompletableFuture<>(), System.currentTimeMillis());
+            if (prefetched.compute(key, (k, old) -> old != null && old.usable() ? old : entry) == entry) {
+                pending.add(new Pending(feeling, json, key, entry));
+                // Failed entries are dropped so the next fetch (or prefetch) tries again
+                entry.page().whenComplete((page, err) -> {
+                    if (err != null) prefetched.remove(key, entry);
+                });
+            }
+        }
+        if (pending.isEmpty()) return;
+
+        if (batchUnsupported) {
+            fetchIndividually(pending);
+            return;
+        }
+
+        JsonObject batch = options.deepCopy();
+        JsonArray names = new JsonArray();
+        pending.forEach(p -> names.add(p.feeling()));
+        batch.add("feelings", names);
+
+        api.postJsonCachedAsync(BATCH_PATH, gson.toJson(batch), PlaylistDecoder::decodeBatch)
+            .whenComplete((byFeeling, err) -> {
+                if (err == null) {
+                    System.out.println("Prefetched " + byFeeling.size() + "/" + pending.size() + " mood playlists in one request");
+                    for (Pending p : pending) {
+                        PlaylistPage page = byFeeling.get(p.feeling());
+                        if (page != null) {
+                            p.entry().page().complete(page);
+                        } else {
+                            p.entry().page().completeExceptionally(new IOException("No playlist for " + p.feeling() + " in batch"));
+                        }
+                    }
+                    return;
+                }
+                Throwable cause = ApiClient.rootCause(err);
+                if (cause instanceof HttpStatusException
+                        && (((HttpStatusException) cause).getStatusCode() == 404
+                            || ((HttpStatusException) cause).getStatusCode() == 405)) {
+                    // Older backend without /playlists: remember, and do it the slow way
+                    batchUnsupported = true;
+                    System.out.println("Backend has no " + BATCH_PATH + ", prefetching moods individually");
+                    fetchIndividually(pending);
+                } else {
+                    System.err.println("Mood prefetch failed: " + cause.getMessage());
+                    pending.forEach(p -> p.entry().page().completeExceptionally(cause));
+                }
+            });
+    }
+
+    /** Single requests, at most {@value #MAX_PARALLEL_FALLBACK} in flight at a time. */
+    private void fetchIndividually(List<Pending> pending) {
+        Queue<Pending> queue = new ConcurrentLinkedQueue<>(pending);
+        for (int i = 0; i < MAX_PARALLEL_FALLBACK; i++) {
+            fetchNext(queue);
+        }
+    }
+
+    private void fetchNext(Queue<Pending> queue) {
+        Pending p = queue.poll();
+        if (p == null) return;
+        fetchFromBackend(p.json()).whenComplete((page, err) -> {
+            if (err != null) {
+                p.entry().page().completeExceptionally(ApiClient.rootCause(err));
+            } else {
+                p.entry().page().complete(page);
+            }
+            fetchNext(queue);
+        });
+    }
+
+    private String key(String json) {
+        return "POST " + api.getBaseUrl() + PLAYLIST_PATH + " " + json;
+    }
+}
@@ -0,0 +1,54 @@
+package com.moodtunes.network;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Generation counter for a series of loads where only the latest one matters
+ * (e.g. the playlist for whichever mood the user picked last).
+ *
+ * Starting a new load, or calling {@link #invalidate()} when the screen goes away,
+ * cancels the load in flight, which aborts its HTTP exchange, and makes its token stale
+ * so a result that still slips through can be dropped by checking {@link #isCurrent(long)}.
+ */
+public class RequestGeneration {
+
+    private long generation;
+    private CompletableFuture<?> inFlight;
+
+    /** Supersedes (and cancels) the previous load and returns the token for the new one. */
+    public synchronized long next() {
+        invalidate();
+        return generation;
+    }
+
+    /**
+     * Registers the future belonging to {@code token} so it can be aborted when superseded.
+     * A future whose token is already stale is cancelled right away.
+     */
+    public synchronized <T> CompletableFuture<T> track(long token, CompletableFuture<T> load) {
+        if (token != generation) {
+            load.cancel(true);
+        } else {
+            inFlight = load;
+            load.whenComplete((v, err) -> clear(load));
+        }
+        return load;
+    }
+
+    public synchronized boolean isCurrent(long token) {
+        return token == generation;
+    }
+
+    /** Cancels the load in flight (if any); everything issued so far becomes stale. */
+    public synchronized void invalidate() {
+        generation++;
+        if (inFlight != null) {
+            inFlight.cancel(true);
+            inFlight = null;
+        }
+    }
+
+    private synchronized void clear(CompletableFuture<?> load) {
+        if (inFlight == load) inFlight = null;
+    }
+}
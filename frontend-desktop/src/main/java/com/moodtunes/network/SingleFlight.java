@@ -0,0 +1,100 @@
+package com.moodtunes.network;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls that share a key into one in-flight operation.
+ *
+ * The first caller for a key starts the work; everyone who asks for the same key before it
+ * completes gets the same result. Once it completes the key is forgotten, so the next call
+ * starts a fresh operation (this is not a cache).
+ *
+ * Each caller gets its own view of the result. Cancelling a view only detaches that caller;
+ * when every caller has cancelled, the underlying work is cancelled too.
+ */
+public class SingleFlight<K, V> {
+
+    private static final class Call<V> {
+        final CompletableFuture<V> result = new CompletableFuture<>();
+        CompletableFuture<V> source;  // guarded by this
+        int waiters;                  // guarded by this
+        boolean abandoned;            // guarded by this
+    }
+
+    private final ConcurrentHashMap<K, Call<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param key  identity of the operation, e.g. method + URL + request body
+     * @param work starts the operation; only invoked if nothing is in flight for {@code key}
+     * @return a per-caller view of the shared result
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> work) {
+        for (;;) {
+            Call<V> call = new Call<>();
+            Call<V> existing = inFlight.putIfAbsent(key, call);
+            if (existing != null) {
+                CompletableFuture<V> view = join(key, existing);
+                if (view != null) return view;
+                // Everyone gave up on that one and it is being torn down; start over
+                inFlight.remove(key, existing);
+                continue;
+            }
+
+            CompletableFuture<V> view = join(key, call);
+            try {
+                CompletableFuture<V> source = work.get();
+                boolean abandoned;
+                synchronized (call) {
+                    call.source = source;
+                    abandoned = call.waiters == 0;
+                }
+                if (abandoned) {
+                    // Every caller cancelled while work.get() was starting it, before leave() could see it
+                    source.cancel(true);
+                    return view;
+                }
+                source.whenComplete((value, err) -> {
+                    // Forget the key before completing so late callers start a fresh request
+                    inFlight.remove(key, call);
+                    if (err != null) call.result.completeExceptionally(err);
+                    else call.result.complete(value);
+                });
+            } catch (RuntimeException e) {
+                inFlight.remove(key, call);
+                call.result.completeExceptionally(e);
+            }
+            return view;
+        }
+    }
+
+    private CompletableFuture<V> join(K key, Call<V> call) {
+        synchronized (call) {
+            if (call.abandoned) return null;
+            call.waiters++;
+        }
+        CompletableFuture<V> view = call.result.copy();
+        view.whenComplete((value, err) -> {
+            if (view.isCancelled()) leave(key, call);
+        });
+        return view;
+    }
+
+    private void leave(K key, Call<V> call) {
+        CompletableFuture<V> source;
+        synchronized (call) {
+            if (--call.waiters > 0 || call.result.isDone()) return;
+            call.abandoned = true;
+            source = call.source;
+        }
+        inFlight.remove(key, call);
+        if (source != null) source.cancel(true);
+        call.result.cancel(false);
+    }
+
+    /** Number of keys currently in flight (diagnostics). */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
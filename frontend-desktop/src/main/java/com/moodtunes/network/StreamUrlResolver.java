@@ -0,0 +1,115 @@
+package com.moodtunes.network;
+
+import com.moodtunes.models.Song;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves {@code /audius/stream/<id>} to the Audius URL the backend redirects to, and
+ * caches the answer so Media can open the audio directly (no backend round trip and no
+ * backend-to-Audius lookup before the first byte on repeat/previous/next).
+ *
+ * Entries live for {@code stream.url.ttl.seconds} (default 300: the signed Audius URLs
+ * expire) and are refreshed in the background once they are three quarters through it.
+ */
+public class StreamUrlResolver {
+
+    private static final long TTL_MILLIS = Long.getLong("stream.url.ttl.seconds", 300) * 1000;
+    private static final long REFRESH_AFTER_MILLIS = TTL_MILLIS * 3 / 4;
+    private static final int MAX_ENTRIES = 512;
+
+    private record Resolved(String url, long resolvedAtMillis) {
+        long age() { return System.currentTimeMillis() - resolvedAtMillis; }
+    }
+
+    // Shared by every resolver (keyed by the primary backend URL, so per backend), survives screen changes
+    private static final Map<String, Resolved> cache = new ConcurrentHashMap<>();
+    private static final SingleFlight<String, String> inFlight = new SingleFlight<>();
+
+    private final ApiClient api;
+
+    public StreamUrlResolver(ApiClient api) {
+        this.api = api;
+    }
+
+    /** The backend's redirecting URL for a track (what Media used to open), on the best endpoint right now. */
+    public String backendUrlFor(String trackId) {
+        return api.resolve(streamPath(trackId));
+    }
+
+    private static String streamPath(String trackId) {
+        return "/audius/stream/" + URLEncoder.encode(trackId, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * URL to hand to Media right now, without blocking: the resolved Audius URL if we have a
+     * live one, otherwise the backend URL (and resolution starts in the background for next time).
+     */
+    public String urlFor(String trackId) {
+        String path = streamPath(trackId);
+        Resolved r = cache.get(api.cacheUrl(path));
+        if (r != null && r.age() < TTL_MILLIS) {
+            if (r.age() >= REFRESH_AFTER_MILLIS) refresh(path); // eager refresh before it expires
+            return r.url();
+        }
+        refresh(path);
+        return api.resolve(path);
+    }
+
+    /** Resolves (or returns the cached resolution of) a track's stream URL. */
+    public CompletableFuture<String> resolve(String trackId) {
+        String path = streamPath(trackId);
+        Resolved r = cache.get(api.cacheUrl(path));
+        if (r != null && r.age() < TTL_MILLIS) {
+            if (r.age() >= REFRESH_AFTER_MILLIS) refresh(path);
+            return CompletableFuture.completedFuture(r.url());
+        }
+        return refresh(path);
+    }
+
+    /** Warms the entries around {@code index} (previous, current, next) so skipping is instant. */
+    public void prefetchAround(List<Song> songs, int index) {
+        if (songs == null) return;
+        for (int i = Math.max(0, index - 1); i <= index + 1 && i < songs.size(); i++) {
+            resolve(songs.get(i).getId());
+        }
+    }
+
+    /** Forget a resolution, e.g. after Media failed to open it (expired signature). */
+    public void invalidate(String trackId) {
+        cache.remove(api.cacheUrl(streamPath(trackId)));
+    }
+
+    /** Resolves {@code path} through the endpoint pool; the result is cached under its stable key. */
+    private CompletableFuture<String> refresh(String path) {
+        String key = api.cacheUrl(path);
+        return inFlight.execute(key, () -> api.resolveRedirectAsync(path)
+            .whenComplete((url, err) -> {
+                if (err != null) {
+                    System.err.println("Stream URL resolve failed for " + path + ": "
+                        + ApiClient.rootCause(err).getMessage());
+                } else {
+                    store(key, url);
+                }
+            }));
+    }
+
+    private static void store(String key, String url) {
+        cache.put(key, new Resolved(url, System.currentTimeMillis()));
+        if (cache.size() > MAX_ENTRIES) {
+            // Rare: drop the oldest resolutions until we're back under the cap
+            cache.entrySet().stream()
+                .sorted(Comparator.comparingLong(e -> e.getValue().resolvedAtMillis()))
+                .limit(cache.size() - MAX_ENTRIES)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(cache::remove);
+        }
+    }
+}
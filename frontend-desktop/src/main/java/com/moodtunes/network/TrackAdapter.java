@@ -0,0 +1,165 @@
+package com.moodtunes.network;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.moodtunes.models.Song;
+import com.moodtunes.utils.StringPool;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Hand-written Gson adapter between a backend track object and {@link Song}.
+ *
+ * One pass over the object, no reflection and no boxing: reads {@code id} (or
+ * {@code track_id}), {@code title}, {@code artist} (or {@code user.name} / {@code user.handle}),
+ * {@code duration} in seconds (or {@code durationText}) and skips everything else.
+ * Registered on {@link Json#GSON}; {@link PlaylistDecoder} calls it directly.
+ */
+public final class TrackAdapter extends TypeAdapter<Song> {
+
+    public static final TrackAdapter INSTANCE = new TrackAdapter();
+
+    private static final int DEFAULT_DURATION_SECONDS = 180; // shown as 3:00 when the backend has no length
+
+    // Shared by every playlist decoded in this process: the same artist shows up on many
+    // tracks and in many moods, and each parse would otherwise keep its own copy
+    private static final StringPool names = new StringPool(Integer.getInteger("app.stringpool.max", 16_384));
+
+    private TrackAdapter() {
+    }
+
+    /** Writes the fields {@link #read} understands, so a Song survives a round trip. */
+    @Override
+    public void write(JsonWriter out, Song song) throws IOException {
+        if (song == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("id").value(song.getId());
+        out.name("title").value(song.getTitle());
+        out.name("artist").value(song.getArtist());
+        if (!song.getAlbum().isEmpty()) out.name("album").value(song.getAlbum());
+        if (song.getDurationSeconds() >= 0) out.name("duration").value(song.getDurationSeconds());
+        out.endObject();
+    }
+
+    @Override
+    public Song read(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        String id = null;
+        String trackId = null;
+        String title = null;
+        String artist = null;
+        String album = null;
+        String userName = null;
+        String userHandle = null;
+        String durationText = null;
+        int durationSecs = -1;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id" -> id = nextStringOrNull(reader);
+                case "track_id" -> trackId = nextStringOrNull(reader);
+                case "title" -> title = nextStringOrNull(reader);
+                case "artist" -> artist = nextStringOrNull(reader);
+                case "album" -> {
+                    String name = nextStringOrNull(reader);
+                    if (name != null) album = name;
+                }
+                case "album_backlink" -> {
+                    if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                        reader.beginObject();
+                        while (reader.hasNext()) {
+                            if (reader.nextName().equals("playlist_name") && album == null) {
+                                album = nextStringOrNull(reader);
+                            } else {
+                                reader.skipValue();
+                            }
+                        }
+                        reader.endObject();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                case "durationText" -> durationText = nextStringOrNull(reader);
+                case "duration" -> durationSecs = nextIntOrDefault(reader, -1);
+                case "user" -> {
+                    if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                        reader.beginObject();
+                        while (reader.hasNext()) {
+                            switch (reader.nextName()) {
+                                case "name" -> userName = nextStringOrNull(reader);
+                                case "handle" -> userHandle = nextStringOrNull(reader);
+                                default -> reader.skipValue();
+                            }
+                        }
+                        reader.endObject();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (id == null) id = trackId != null ? trackId : UUID.randomUUID().toString();
+        if (title == null) title = "Unknown Track";
+        if (artist == null) artist = userName != null ? userName : userHandle != null ? userHandle : "Unknown Artist";
+        title = names.intern(title);
+        artist = names.intern(artist);
+        album = names.intern(album);
+
+        // A duration that is missing or unusable falls back to durationText, then to the default
+        int duration = DEFAULT_DURATION_SECONDS;
+        if (durationSecs >= 0) {
+            duration = durationSecs;
+        } else if (durationText != null) {
+            int parsed = Song.parseDuration(durationText);
+            if (parsed >= 0) duration = parsed;
+        }
+
+        return new Song(id, title, artist, album, duration);
+    }
+
+    static String nextStringOrNull(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case NULL -> {
+                reader.nextNull();
+                return null;
+            }
+            case BOOLEAN -> {
+                return Boolean.toString(reader.nextBoolean());
+            }
+            case STRING, NUMBER -> {
+                return reader.nextString();
+            }
+            default -> {
+                reader.skipValue();
+                return null;
+            }
+        }
+    }
+
+    private static int nextIntOrDefault(JsonReader reader, int def) throws IOException {
+        JsonToken token = reader.peek();
+        if (token != JsonToken.NUMBER && token != JsonToken.STRING) {
+            reader.skipValue();
+            return def;
+        }
+        try {
+            return (int) reader.nextDouble();
+        } catch (NumberFormatException e) {
+            reader.skipValue(); // a failed nextDouble() leaves the value unconsumed
+            return def;
+        }
+    }
+}